@@ -1,6 +1,9 @@
 package org.example;
 
+import org.example.gatherers.ConcurrentGatherers;
 import org.example.utils.Account;
+import org.example.utils.AccountTable;
+import org.example.utils.AsyncCache;
 import org.example.utils.ExerciseNotCompletedException;
 import org.example.utils.OrderDetails;
 import org.example.utils.Gender;
@@ -12,6 +15,7 @@ import java.util.*;
 import java.util.function.*;
 import java.util.stream.Gatherer;
 import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 ///
@@ -64,6 +68,11 @@ public class CrazyGatherers {
 
     private List<Integer> integers;
 
+    private AccountTable table;
+
+    private final AsyncCache<Long, OrderDetails> orderCache =
+            new AsyncCache<>(10_000, Duration.ofMinutes(1), this::callToAnotherMicroserviceToGetOrder);
+
     public CrazyGatherers(Collection<Account> accounts) {
         this.accounts = accounts;
     }
@@ -72,6 +81,17 @@ public class CrazyGatherers {
         this.integers = integers;
     }
 
+    /// Runs the account queries over a columnar [AccountTable]: through its list view,
+    /// and column by column in the `...Columnar` methods.
+    public CrazyGatherers(AccountTable table) {
+        this.table = table;
+        this.accounts = table.asList();
+    }
+
+    private AccountTable table() {
+        return Objects.requireNonNull(table, "created without an AccountTable");
+    }
+
     /// Returns all accounts matching the given gender.
     ///
     /// This method, for learning purposes, demonstrates how a custom
@@ -103,6 +123,23 @@ public class CrazyGatherers {
         throw new ExerciseNotCompletedException();
     }
 
+    /// Returns all accounts matching the given gender, like [#filterByGender(Gender)],
+    /// scanning only the gender bitset of the [AccountTable] this instance was created
+    /// with and materializing only the matching rows.
+    ///
+    /// @param gender
+    ///   the gender to filter accounts by
+    /// @return
+    ///   a list of accounts with the given gender
+    /// @throws NullPointerException
+    ///   if this instance was not created with an [AccountTable]
+    public List<Account> filterByGenderColumnar(Gender gender) {
+        AccountTable table = table();
+        return table.rowsWithGender(gender)
+                .mapToObj(table::account)
+                .toList();
+    }
+
     /// Maps accounts to their full names.
     ///
     /// This method, for learning purposes, demonstrates how a custom
@@ -306,6 +343,24 @@ public class CrazyGatherers {
                 .toList();
     }
 
+    /// Returns the accounts from the first one born on or before `date`, like
+    /// [#dropWhileBornAfter(LocalDate)], scanning only the birthday column of the
+    /// [AccountTable] this instance was created with.
+    ///
+    /// @param date
+    ///   the date used to determine which accounts to skip
+    /// @return
+    ///   a list of accounts starting from the first one whose birthday
+    ///   is on or before the given date
+    /// @throws NullPointerException
+    ///   if this instance was not created with an [AccountTable]
+    public List<Account> dropWhileBornAfterColumnar(LocalDate date) {
+        AccountTable table = table();
+        return IntStream.range(table.firstRowBornOnOrBefore(date), table.size())
+                .mapToObj(table::account)
+                .toList();
+    }
+
     /// Creates a gatherer that drops elements while a predicate holds.
     ///
     /// This method is intentionally left unimplemented as an exercise.
@@ -728,6 +783,44 @@ public class CrazyGatherers {
                 .toList();
     }
 
+    /// Returns a list of orders for all accounts, fetched through the bulk endpoint.
+    ///
+    /// Account ids are grouped into batches of up to `batchSize` with
+    /// [ConcurrentGatherers#batchConcurrent(int, Duration, int, Function)]. Each batch is
+    /// one bulk call, several batches are in flight at the same time on virtual threads,
+    /// and the orders come back one per account, in the order of the accounts.
+    ///
+    /// @param batchSize
+    ///   the maximum number of account ids per bulk call
+    /// @return a list of [OrderDetails] objects corresponding to all accounts
+    public List<OrderDetails> getListOfOrdersByAccountsInBatches(int batchSize) {
+        return accounts.stream()
+                .map(Account::id)
+                .gather(ConcurrentGatherers.batchConcurrent(batchSize, Duration.ofMillis(10), 4,
+                        this::callToAnotherMicroserviceToGetOrders))
+                .toList();
+    }
+
+    /// Returns a list of orders for all accounts, looking each account up through a cache.
+    ///
+    /// Account ids are fetched concurrently with [Gatherers#mapConcurrent(int, Function)]
+    /// through an [AsyncCache] kept by this instance: an account that was already fetched
+    /// costs no call, and accounts that repeat while their order is being fetched wait
+    /// for that one call. See [#getOrderCacheStats()] for the hits and misses.
+    ///
+    /// @return a list of [OrderDetails] objects corresponding to all accounts
+    public List<OrderDetails> getListOfOrdersByAccountsCached() {
+        return accounts.stream()
+                .map(Account::id)
+                .gather(Gatherers.mapConcurrent(100, orderCache::get))
+                .toList();
+    }
+
+    /// Returns the request counts of the cache behind [#getListOfOrdersByAccountsCached()].
+    public AsyncCache.Stats getOrderCacheStats() {
+        return orderCache.stats();
+    }
+
     /// Simulates a call to a remote service to fetch an order for the given account ID.
     ///
     /// This method introduces a delay of 1 second to imitate network latency.
@@ -739,4 +832,18 @@ public class CrazyGatherers {
             throw new RuntimeException(e);
         }
     }
+
+    /// Simulates a bulk call to a remote service to fetch the orders for many account IDs.
+    ///
+    /// One request costs the same 1 second of latency, whatever the number of IDs.
+    private List<OrderDetails> callToAnotherMicroserviceToGetOrders(List<Long> accountIds) {
+        try {
+            Thread.sleep(Duration.ofSeconds(1));
+            return accountIds.stream()
+                    .map(accountId -> new OrderDetails(accountId + 1, accountId, "some info"))
+                    .toList();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
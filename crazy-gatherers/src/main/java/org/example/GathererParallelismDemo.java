@@ -1,5 +1,7 @@
 package org.example;
 
+import org.example.gatherers.Instrumented;
+
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Gatherer;
@@ -20,6 +22,9 @@ public class GathererParallelismDemo {
 
         IO.println("Parallel execution");
         parallel();
+
+        IO.println("Instrumented execution");
+        instrumented();
     }
 
     /// # Sequential Gatherer on a Parallel Stream
@@ -187,4 +192,38 @@ public class GathererParallelismDemo {
         IO.println("threadUpstream = " + result.getFirst().threadGatherer.size());
         IO.println("threadUpstream = " + result.getFirst().threadDownstream.size());
     }
+
+    /// # Instrumented Gatherer execution
+    ///
+    /// The same observation as [#parallel()], without hand-written `Set` state:
+    /// the gatherer is wrapped with [Instrumented#wrap(Gatherer)], which records
+    /// thread participation per stage, combiner and finisher time,
+    /// and a push-latency histogram.
+    ///
+    /// ## Key takeaway
+    ///
+    /// Instrumentation is a **decorator**: the wrapped gatherer stays parallel
+    /// because it has a combiner, and the metrics come for free.
+    private static void instrumented() {
+        var instrumented = Instrumented.wrap(Gatherer.<Integer, Set<Integer>, Integer>of(
+                HashSet::new,
+                (state, element, _) -> {
+                    state.add(element % 1_000);
+                    return true;
+                },
+                (state1, state2) -> {
+                    state1.addAll(state2);
+                    return state1;
+                },
+                (state, downstream) -> state.forEach(downstream::push)
+        ));
+
+        IntStream.range(0, 1_000_000)
+                .parallel()
+                .boxed()
+                .gather(instrumented)
+                .toList();
+
+        IO.println(instrumented.metrics());
+    }
 }
@@ -0,0 +1,220 @@
+package org.example.gatherers;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/// # AdaptiveLimit
+///
+/// A concurrency limit that adapts to the latency and errors of the calls it admits,
+/// like a TCP congestion window (additive increase, multiplicative decrease).
+///
+/// - a call that completes within `tolerance` × the baseline latency, while the
+///   limit is actually in use, raises the limit by `1 / limit`, so about `+1` per
+///   limit's worth of calls
+/// - a failed call, or one slower than `tolerance` × baseline, multiplies the limit
+///   by `backoff`, at most once per round trip: only calls that started after the last
+///   decrease can decrease it again, so a latency spike seen by every call in flight
+///   backs off once, not once per call
+/// - a call ended with [#abandon()] (cancelled or interrupted by its caller) says
+///   nothing about the service and leaves the limit alone
+/// - the limit always stays within `[floor, ceiling]`
+/// - the baseline is the lowest latency of the previous window of samples, so it
+///   follows the service when its unloaded latency changes
+///
+/// A limit is thread-safe and can be shared by every pipeline that calls the same
+/// service, so that they back off together. [#acquire()] blocks until fewer than
+/// [#currentLimit()] calls are in flight; every acquisition must be followed by one
+/// [#release(long, boolean)] or [#abandon()].
+///
+/// ```java
+/// AdaptiveLimit limit = new AdaptiveLimit(4, 200);
+/// List<OrderDetails> orders = accountIds.stream()
+///         .gather(ConcurrentGatherers.mapConcurrentAdaptive(limit, orderService::findOrder))
+///         .toList();
+/// IO.println(limit.currentLimit() + " in flight, queued " + limit.queueingDelay());
+/// ```
+public final class AdaptiveLimit {
+
+    private static final double TOLERANCE = 2.0;
+    private static final double BACKOFF = 0.9;
+    private static final int WINDOW = 100;
+    private static final double SMOOTHING = 0.1;
+
+    private final int floor;
+    private final int ceiling;
+    private final double tolerance;
+    private final double backoff;
+    private final LongSupplier ticker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotAvailable = lock.newCondition();
+
+    // guarded by lock
+    private double limit;
+    private int inFlight;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private double queueingDelayNanos;
+    private double latencyNanos;
+    private long lastBackoffNanos;
+
+    /// A limit starting at `floor`, with the default tolerance (2) and backoff (0.9).
+    public AdaptiveLimit(int floor, int ceiling) {
+        this(floor, floor, ceiling, TOLERANCE, BACKOFF);
+    }
+
+    /// @param initial
+    ///   the limit to start with
+    /// @param floor
+    ///   the lowest limit, at least 1
+    /// @param ceiling
+    ///   the highest limit
+    /// @param tolerance
+    ///   how many times slower than the baseline a call may be before the limit backs off, above 1
+    /// @param backoff
+    ///   the factor the limit is multiplied by on a failure or a slow call, in `(0, 1)`
+    public AdaptiveLimit(int initial, int floor, int ceiling, double tolerance, double backoff) {
+        this(initial, floor, ceiling, tolerance, backoff, System::nanoTime);
+    }
+
+    AdaptiveLimit(int initial, int floor, int ceiling, double tolerance, double backoff, LongSupplier ticker) {
+        if (floor < 1 || ceiling < floor || initial < floor || initial > ceiling) {
+            throw new IllegalArgumentException("expected 1 <= floor <= initial <= ceiling");
+        }
+        if (!(tolerance > 1)) {
+            throw new IllegalArgumentException("tolerance must be greater than 1");
+        }
+        if (!(backoff > 0 && backoff < 1)) {
+            throw new IllegalArgumentException("backoff must be in (0, 1)");
+        }
+        this.floor = floor;
+        this.ceiling = ceiling;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.ticker = ticker;
+        this.limit = initial;
+        this.lastBackoffNanos = ticker.getAsLong();
+    }
+
+    /// Waits until a call may start and returns its start time (`System.nanoTime()`),
+    /// to be passed to [#release(long, boolean)].
+    ///
+    /// @throws InterruptedException
+    ///   if interrupted while waiting; nothing was acquired then
+    public long acquire() throws InterruptedException {
+        long queued = ticker.getAsLong();
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                slotAvailable.await();
+            }
+            inFlight++;
+            long start = ticker.getAsLong();
+            queueingDelayNanos += SMOOTHING * ((start - queued) - queueingDelayNanos);
+            return start;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Ends a call started by [#acquire()] and adapts the limit to its outcome.
+    public void release(long start, boolean success) {
+        long now = ticker.getAsLong();
+        long latency = now - start;
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= (int) limit;
+            inFlight--;
+            latencyNanos += SMOOTHING * (latency - latencyNanos);
+            if (success) {
+                windowMinNanos = Math.min(windowMinNanos, latency);
+                if (++windowSamples == WINDOW || baselineNanos == Long.MAX_VALUE) {
+                    baselineNanos = windowMinNanos;
+                    windowMinNanos = Long.MAX_VALUE;
+                    windowSamples = 0;
+                }
+            }
+            if (!success || latency > baselineNanos * tolerance) {
+                // calls admitted before the last decrease report the same congestion again
+                if (start - lastBackoffNanos >= 0) {
+                    limit = Math.max(floor, limit * backoff);
+                    lastBackoffNanos = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(ceiling, limit + 1 / limit);
+            }
+            slotAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Ends a call started by [#acquire()] without adapting the limit: for calls that
+    /// were cancelled or interrupted by their caller rather than failed by the service.
+    public void abandon() {
+        lock.lock();
+        try {
+            inFlight--;
+            slotAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// The number of calls allowed in flight right now.
+    public int currentLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// The number of calls in flight right now.
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// The smoothed time calls wait in [#acquire()] before they may start.
+    public Duration queueingDelay() {
+        lock.lock();
+        try {
+            return Duration.ofNanos((long) queueingDelayNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// The smoothed latency of calls.
+    public Duration latency() {
+        lock.lock();
+        try {
+            return Duration.ofNanos((long) latencyNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int floor() {
+        return floor;
+    }
+
+    public int ceiling() {
+        return ceiling;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveLimit[limit=" + currentLimit() + ", floor=" + floor + ", ceiling=" + ceiling
+                + ", inFlight=" + inFlight() + ", latency=" + latency() + ", queueingDelay=" + queueingDelay() + "]";
+    }
+}
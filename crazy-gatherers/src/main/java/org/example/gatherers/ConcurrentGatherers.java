@@ -0,0 +1,597 @@
+package org.example.gatherers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+import static org.example.utils.Futures.await;
+
+/// # ConcurrentGatherers
+///
+/// Gatherers that call slow (remote) operations concurrently on virtual threads,
+/// complementing [java.util.stream.Gatherers#mapConcurrent(int, Function)].
+///
+/// All of them are sequential stages that run their tasks on a
+/// [Executors#newVirtualThreadPerTaskExecutor()] owned by one stream evaluation,
+/// and cancel whatever is still running when the downstream stops accepting elements,
+/// when a task fails or when the stream completes.
+public final class ConcurrentGatherers {
+
+    private ConcurrentGatherers() {
+    }
+
+    /// Groups elements into batches, calls `bulk` once per batch and pushes the
+    /// per-element results in encounter order.
+    ///
+    /// Turns `n` single calls into `n / maxBatchSize` bulk calls:
+    ///
+    /// - a batch is sent when it has `maxBatchSize` elements, or `maxLinger` after its
+    ///   first element arrived, whichever comes first (a virtual-thread timer sends
+    ///   it even if the upstream is idle)
+    /// - up to `maxConcurrentBatches` bulk calls run at the same time; when more
+    ///   batches are pending, the stream waits for the oldest one
+    /// - `bulk` must return one result per element, in the order of the batch
+    /// - results are pushed in encounter order, whenever a new element arrives and in
+    ///   the finisher, so a slow batch holds back the batches sent after it
+    ///
+    /// ```java
+    /// List<OrderDetails> orders = accounts.stream()
+    ///         .map(Account::id)
+    ///         .gather(ConcurrentGatherers.batchConcurrent(100, Duration.ofMillis(20), 4, orderService::findOrders))
+    ///         .toList();
+    /// ```
+    ///
+    /// A failed bulk call cancels the other calls, and its exception is rethrown
+    /// (unchecked exceptions as they are, checked ones wrapped in a [RuntimeException]).
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `maxBatchSize` or `maxConcurrentBatches` is not positive, or `maxLinger` is negative
+    public static <T, R> Gatherer<T, ?, R> batchConcurrent(int maxBatchSize,
+                                                           Duration maxLinger,
+                                                           int maxConcurrentBatches,
+                                                           Function<? super List<T>, ? extends List<? extends R>> bulk) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        if (maxConcurrentBatches <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        if (maxLinger.isNegative()) {
+            throw new IllegalArgumentException("linger must not be negative");
+        }
+        Objects.requireNonNull(bulk);
+
+        class State {
+            final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            final Semaphore permits = new Semaphore(maxConcurrentBatches);
+            final ReentrantLock lock = new ReentrantLock();
+            // guarded by lock: the linger timer sends batches too
+            ArrayList<T> batch = new ArrayList<>(maxBatchSize);
+            Future<?> lingerTimer;
+            final ArrayDeque<Future<List<? extends R>>> inFlight = new ArrayDeque<>();
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                try {
+                    lock.lock();
+                    try {
+                        if (batch.isEmpty()) {
+                            startLingerTimer();
+                        }
+                        batch.add(element);
+                        if (batch.size() == maxBatchSize) {
+                            send(false);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    return emit(downstream, maxConcurrentBatches);
+                } catch (RuntimeException | Error e) {
+                    close();
+                    throw e;
+                }
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                try {
+                    lock.lock();
+                    try {
+                        if (!batch.isEmpty() && !downstream.isRejecting()) {
+                            send(false);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (!downstream.isRejecting()) {
+                        emit(downstream, 0);
+                    }
+                } finally {
+                    close();
+                }
+            }
+
+            private void startLingerTimer() {
+                List<T> lingering = batch;
+                lingerTimer = executor.submit(() -> {
+                    Thread.sleep(maxLinger);
+                    lock.lock();
+                    try {
+                        if (batch == lingering && !batch.isEmpty()) {
+                            send(true);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    return null;
+                });
+            }
+
+            private void send(boolean fromTimer) {
+                if (!fromTimer) {
+                    lingerTimer.cancel(true);
+                }
+                lingerTimer = null;
+                List<T> full = batch;
+                batch = new ArrayList<>(maxBatchSize);
+                inFlight.addLast(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        List<? extends R> results = bulk.apply(full);
+                        if (results.size() != full.size()) {
+                            throw new IllegalStateException(
+                                    "bulk call returned " + results.size() + " results for " + full.size() + " elements");
+                        }
+                        return results;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            // pushes finished batches in order; waits for the oldest while more than `pending` are in flight
+            private boolean emit(Gatherer.Downstream<? super R> downstream, int pending) {
+                while (true) {
+                    Future<List<? extends R>> oldest;
+                    lock.lock();
+                    try {
+                        oldest = inFlight.peekFirst();
+                        if (oldest == null || !oldest.isDone() && inFlight.size() <= pending) {
+                            return true;
+                        }
+                        inFlight.pollFirst();
+                    } finally {
+                        lock.unlock();
+                    }
+                    for (R result : await(oldest)) {
+                        if (!downstream.push(result)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+
+            private void close() {
+                lock.lock();
+                try {
+                    inFlight.forEach(future -> future.cancel(true));
+                    inFlight.clear();
+                } finally {
+                    lock.unlock();
+                }
+                executor.shutdownNow();
+            }
+        }
+
+        return Gatherer.ofSequential(
+                State::new,
+                Gatherer.Integrator.<State, T, R>ofGreedy((state, element, downstream) -> state.integrate(element, downstream)),
+                State::finish
+        );
+    }
+
+    /// Like [java.util.stream.Gatherers#mapConcurrent(int, Function)], but the number of
+    /// calls in flight follows an [AdaptiveLimit] instead of a fixed `maxConcurrency`.
+    ///
+    /// - every element waits in [AdaptiveLimit#acquire()] until the limit lets one more
+    ///   call start; the wait is reported as [AdaptiveLimit#queueingDelay()]
+    /// - each call runs on its own virtual thread; its latency and outcome feed back
+    ///   into the limit, which grows while calls stay fast and backs off when they fail
+    ///   or slow down
+    /// - results are pushed in encounter order; at most [AdaptiveLimit#ceiling()]
+    ///   results are buffered behind a slow one
+    ///
+    /// ```java
+    /// AdaptiveLimit limit = new AdaptiveLimit(4, 200);
+    /// List<OrderDetails> orders = accountIds.stream()
+    ///         .gather(ConcurrentGatherers.mapConcurrentAdaptive(limit, orderService::findOrder))
+    ///         .toList();
+    /// ```
+    ///
+    /// The limit may be shared by several streams calling the same service: they then
+    /// share one in-flight budget and back off together. A failed call fails the stream
+    /// like in `mapConcurrent` (after lowering the limit for the others), so a mapper that
+    /// should survive errors has to return a fallback itself. Calls interrupted because the
+    /// stream failed or stopped early give their slot back with [AdaptiveLimit#abandon()],
+    /// without shrinking the shared limit.
+    public static <T, R> Gatherer<T, ?, R> mapConcurrentAdaptive(AdaptiveLimit limit,
+                                                                 Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(limit);
+        Objects.requireNonNull(mapper);
+
+        class State {
+            final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            final ArrayDeque<Future<R>> pending = new ArrayDeque<>();
+            volatile boolean closed;
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                try {
+                    if (pending.size() >= limit.ceiling() && !emit(downstream, limit.ceiling() - 1)) {
+                        return false;
+                    }
+                    long start;
+                    try {
+                        start = limit.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("interrupted while waiting for a concurrency slot", e);
+                    }
+                    // not cancelled through the future: a task cancelled before it ran would keep its slot
+                    pending.addLast(executor.submit(() -> {
+                        boolean success = false;
+                        try {
+                            R result = mapper.apply(element);
+                            success = true;
+                            return result;
+                        } finally {
+                            if (success || !closed) {
+                                limit.release(start, success);
+                            } else {
+                                // interrupted by close(): not a signal about the service
+                                limit.abandon();
+                            }
+                        }
+                    }));
+                    return emit(downstream, Integer.MAX_VALUE);
+                } catch (RuntimeException | Error e) {
+                    close();
+                    throw e;
+                }
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                try {
+                    if (!downstream.isRejecting()) {
+                        emit(downstream, 0);
+                    }
+                } finally {
+                    close();
+                }
+            }
+
+            // pushes finished results in order; waits for the oldest while more than `maxPending` are left
+            private boolean emit(Gatherer.Downstream<? super R> downstream, int maxPending) {
+                while (!pending.isEmpty() && (pending.peekFirst().isDone() || pending.size() > maxPending)) {
+                    if (!downstream.push(await(pending.pollFirst()))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            // interrupts the running calls; each one still releases its slot
+            private void close() {
+                closed = true;
+                pending.clear();
+                executor.shutdownNow();
+            }
+        }
+
+        return Gatherer.ofSequential(
+                State::new,
+                Gatherer.Integrator.<State, T, R>ofGreedy((state, element, downstream) -> state.integrate(element, downstream)),
+                State::finish
+        );
+    }
+
+    /// Like [java.util.stream.Gatherers#mapConcurrent(int, Function)], but pushes results
+    /// in completion order instead of encounter order.
+    ///
+    /// With encounter order, one slow element holds back every result after it
+    /// (head-of-line blocking). Here a result is pushed as soon as the stream gets
+    /// control after its task completed: while integrating a later element, or in the
+    /// finisher.
+    ///
+    /// - up to `maxConcurrency` tasks run at the same time, each on its own virtual
+    ///   thread; when all slots are taken, the stream waits for whichever task
+    ///   finishes first
+    /// - when the downstream stops accepting elements, the outstanding tasks are
+    ///   cancelled (their threads interrupted)
+    /// - a failed task cancels the others, and its exception is rethrown
+    ///
+    /// ```java
+    /// List<OrderDetails> orders = accountIds.stream()
+    ///         .gather(ConcurrentGatherers.mapConcurrentUnordered(100, orderService::findOrder))
+    ///         .toList();
+    /// ```
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `maxConcurrency` is not positive
+    public static <T, R> Gatherer<T, ?, R> mapConcurrentUnordered(int maxConcurrency,
+                                                                  Function<? super T, ? extends R> mapper) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        Objects.requireNonNull(mapper);
+
+        class State {
+            final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            final CompletionService<R> completed = new ExecutorCompletionService<>(executor);
+            final Set<Future<R>> running = new HashSet<>();
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                try {
+                    if (running.size() == maxConcurrency && !pushNext(downstream)) {
+                        close();
+                        return false;
+                    }
+                    running.add(completed.submit(() -> mapper.apply(element)));
+                    Future<R> done;
+                    while ((done = completed.poll()) != null) {
+                        if (!push(done, downstream)) {
+                            close();
+                            return false;
+                        }
+                    }
+                    return true;
+                } catch (RuntimeException | Error e) {
+                    close();
+                    throw e;
+                }
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                try {
+                    while (!running.isEmpty() && !downstream.isRejecting()) {
+                        if (!pushNext(downstream)) {
+                            return;
+                        }
+                    }
+                } finally {
+                    close();
+                }
+            }
+
+            // waits for the first task to complete and pushes its result
+            private boolean pushNext(Gatherer.Downstream<? super R> downstream) {
+                try {
+                    return push(completed.take(), downstream);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("interrupted while waiting for a concurrent task", e);
+                }
+            }
+
+            private boolean push(Future<R> done, Gatherer.Downstream<? super R> downstream) {
+                running.remove(done);
+                return downstream.push(await(done));
+            }
+
+            private void close() {
+                running.forEach(future -> future.cancel(true));
+                running.clear();
+                executor.shutdownNow();
+            }
+        }
+
+        return Gatherer.ofSequential(
+                State::new,
+                Gatherer.Integrator.<State, T, R>ofGreedy((state, element, downstream) -> state.integrate(element, downstream)),
+                State::finish
+        );
+    }
+
+    /// Like [java.util.stream.Gatherers#mapConcurrent(int, Function)], with hedged requests:
+    /// when a call takes longer than the 95th percentile of the latencies observed so far,
+    /// a duplicate call is sent and whichever answers first wins. Only the first call of
+    /// every element is sampled, and one that is cancelled counts with the time it ran,
+    /// so the percentile is not skewed towards the calls that won.
+    ///
+    /// Hedging cuts the tail latency of services where a few calls are much slower than
+    /// the rest, for about 5% more calls. It needs `mapper` to be idempotent. See
+    /// [#mapConcurrentHedged(int, Duration, Function, Function)] for a deadline.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `maxConcurrency` is not positive
+    public static <T, R> Gatherer<T, ?, R> mapConcurrentHedged(int maxConcurrency,
+                                                               Function<? super T, ? extends R> mapper) {
+        return hedged(maxConcurrency, null, null, mapper);
+    }
+
+    /// Like [#mapConcurrentHedged(int, Function)], with a per-element deadline: an element
+    /// whose calls have not answered within `deadline` gets `fallback.apply(element)`
+    /// instead, and its calls are cancelled, so one stuck call cannot block the stream.
+    ///
+    /// ```java
+    /// List<OrderDetails> orders = accountIds.stream()
+    ///         .gather(ConcurrentGatherers.mapConcurrentHedged(100, Duration.ofMillis(500),
+    ///                 id -> new OrderDetails(-1L, id, "unavailable"), orderService::findOrder))
+    ///         .toList();
+    /// ```
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `maxConcurrency` or `deadline` is not positive
+    public static <T, R> Gatherer<T, ?, R> mapConcurrentHedged(int maxConcurrency,
+                                                               Duration deadline,
+                                                               Function<? super T, ? extends R> fallback,
+                                                               Function<? super T, ? extends R> mapper) {
+        if (!deadline.isPositive()) {
+            throw new IllegalArgumentException("deadline must be positive");
+        }
+        return hedged(maxConcurrency, deadline, Objects.requireNonNull(fallback), mapper);
+    }
+
+    private static <T, R> Gatherer<T, ?, R> hedged(int maxConcurrency,
+                                                   Duration deadline,
+                                                   Function<? super T, ? extends R> fallback,
+                                                   Function<? super T, ? extends R> mapper) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        Objects.requireNonNull(mapper);
+
+        class State {
+            final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            final LatencyWindow latencies = new LatencyWindow();
+            final ArrayDeque<Future<R>> pending = new ArrayDeque<>();
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                try {
+                    if (pending.size() >= maxConcurrency && !emit(downstream, maxConcurrency - 1)) {
+                        return false;
+                    }
+                    pending.addLast(executor.submit(() -> call(element)));
+                    return emit(downstream, Integer.MAX_VALUE);
+                } catch (RuntimeException | Error e) {
+                    close();
+                    throw e;
+                }
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                try {
+                    if (!downstream.isRejecting()) {
+                        emit(downstream, 0);
+                    }
+                } finally {
+                    close();
+                }
+            }
+
+            // runs on the element's own virtual thread
+            private R call(T element) throws InterruptedException {
+                long start = System.nanoTime();
+                CompletionService<R> calls = new ExecutorCompletionService<>(executor);
+                AtomicLong firstLatency = new AtomicLong(-1);
+                Callable<R> first = () -> {
+                    try {
+                        return mapper.apply(element);
+                    } finally {
+                        firstLatency.compareAndSet(-1, System.nanoTime() - start);
+                    }
+                };
+                Callable<R> attempt = () -> mapper.apply(element);
+                List<Future<R>> sent = new ArrayList<>(2);
+                try {
+                    sent.add(calls.submit(first));
+                    Future<R> done = null;
+                    long hedgeDelay = latencies.p95();
+                    if (hedgeDelay >= 0 && (deadline == null || hedgeDelay < deadline.toNanos())) {
+                        done = calls.poll(hedgeDelay, TimeUnit.NANOSECONDS);
+                        if (done == null) {
+                            sent.add(calls.submit(attempt));
+                        }
+                    }
+                    int answered = 0;
+                    while (true) {
+                        if (done == null) {
+                            done = deadline == null
+                                    ? calls.take()
+                                    : calls.poll(deadline.toNanos() - (System.nanoTime() - start), TimeUnit.NANOSECONDS);
+                            if (done == null) {
+                                return fallback.apply(element);
+                            }
+                        }
+                        answered++;
+                        if (done.state() == Future.State.FAILED && answered < sent.size()) {
+                            // the other call may still answer
+                            done = null;
+                            continue;
+                        }
+                        return await(done);
+                    }
+                } finally {
+                    sent.forEach(future -> future.cancel(true));
+                    // only the first call of every element is sampled, cancelled ones with the time
+                    // they ran as a lower bound: sampling just the calls that answered would bias
+                    // the p95 towards fast calls and make hedges ever more frequent
+                    long latency = firstLatency.get();
+                    latencies.record(latency >= 0 ? latency : System.nanoTime() - start);
+                }
+            }
+
+            // pushes finished results in order; waits for the oldest while more than `maxPending` are left
+            private boolean emit(Gatherer.Downstream<? super R> downstream, int maxPending) {
+                while (!pending.isEmpty() && (pending.peekFirst().isDone() || pending.size() > maxPending)) {
+                    if (!downstream.push(await(pending.pollFirst()))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            private void close() {
+                pending.forEach(future -> future.cancel(true));
+                pending.clear();
+                executor.shutdownNow();
+            }
+        }
+
+        return Gatherer.ofSequential(
+                State::new,
+                Gatherer.Integrator.<State, T, R>ofGreedy((state, element, downstream) -> state.integrate(element, downstream)),
+                State::finish
+        );
+    }
+
+    /// The latencies of the last [#CAPACITY] calls, for the hedging delay.
+    private static final class LatencyWindow {
+
+        static final int CAPACITY = 1024;
+        static final int MIN_SAMPLES = 10;
+
+        private final long[] samples = new long[CAPACITY];
+        private final ReentrantLock lock = new ReentrantLock();
+        private long recorded;
+
+        void record(long latencyNanos) {
+            lock.lock();
+            try {
+                samples[(int) (recorded++ % CAPACITY)] = latencyNanos;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /// The 95th percentile in nanoseconds, or `-1` until there are enough samples.
+        long p95() {
+            long[] window;
+            lock.lock();
+            try {
+                if (recorded < MIN_SAMPLES) {
+                    return -1;
+                }
+                window = Arrays.copyOf(samples, (int) Math.min(recorded, CAPACITY));
+            } finally {
+                lock.unlock();
+            }
+            Arrays.sort(window);
+            return window[(int) Math.ceil(window.length * 0.95) - 1];
+        }
+    }
+}
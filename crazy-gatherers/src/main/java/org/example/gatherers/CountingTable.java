@@ -0,0 +1,130 @@
+package org.example.gatherers;
+
+/// An open-addressing hash table from keys to primitive `long` counts.
+///
+/// Keys, cached hashes and counts live in three parallel arrays probed linearly,
+/// so counting allocates nothing per element and nothing per key beyond the
+/// arrays themselves (no entry objects, no boxed counters). The table is kept at
+/// most half full. `null` is a valid key.
+final class CountingTable<T> {
+
+    private static final Object NULL_KEY = new Object();
+
+    private Object[] keys;
+    private int[] hashes;
+    private long[] counts;
+    private int size;
+
+    CountingTable() {
+        this(16);
+    }
+
+    CountingTable(int expectedKeys) {
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, expectedKeys - 1)) << 2);
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        counts = new long[capacity];
+    }
+
+    /// Adds `count` to the count of `key`.
+    void add(T key, long count) {
+        Object masked = key == null ? NULL_KEY : key;
+        add(masked, hash(masked), count);
+    }
+
+    /// Adds every count of `other` to this table.
+    void addAll(CountingTable<T> other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != null) {
+                add(other.keys[slot], other.hashes[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    /// The count of `key`, `0` if absent.
+    long count(T key) {
+        Object masked = key == null ? NULL_KEY : key;
+        int hash = hash(masked);
+        int mask = keys.length - 1;
+        for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && keys[slot].equals(masked)) {
+                return counts[slot];
+            }
+        }
+        return 0;
+    }
+
+    /// The number of distinct keys.
+    int size() {
+        return size;
+    }
+
+    /// The number of slots; keys are read by slot with [#isOccupied(int)], [#key(int)] and [#count(int)].
+    int slots() {
+        return keys.length;
+    }
+
+    boolean isOccupied(int slot) {
+        return keys[slot] != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    T key(int slot) {
+        Object key = keys[slot];
+        return key == NULL_KEY ? null : (T) key;
+    }
+
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    private void add(Object key, int hash, long count) {
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(key)) {
+                counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        hashes[slot] = hash;
+        counts[slot] = count;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        long[] oldCounts = counts;
+        keys = new Object[oldKeys.length * 2];
+        hashes = new int[keys.length];
+        counts = new long[keys.length];
+        int mask = keys.length - 1;
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] != null) {
+                int slot = oldHashes[old] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[old];
+                hashes[slot] = oldHashes[old];
+                counts[slot] = oldCounts[old];
+            }
+        }
+    }
+
+    /// murmur3 fmix32, so that the low bits used for the slot are well mixed
+    static int hash(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.gatherers;
+
+import org.example.utils.ScalableBloomFilter;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+/// # DistinctGatherers
+///
+/// `distinctBy` gatherers, streaming, parallel or in bounded memory.
+///
+/// A buffering `distinctBy` (a `HashMap<K, T>` per split, emitted in the finisher)
+/// holds every distinct element until the end of the stream, pushes nothing before
+/// the source is exhausted and emits in hash order. The modes here differ in how
+/// they trade streaming for parallelism:
+///
+/// | Mode | Winner | Parallel | State |
+/// |------|--------|----------|-------|
+/// | [#distinctBy(Function)] | first in encounter order | sequential stage | `HashSet<K>` |
+/// | [#unorderedDistinctBy(Function)] | first in encounter order | parallel, pushes in the finisher | `LinkedHashMap<K, T>` per split |
+/// | [#approximateDistinctBy(Function, double, long)] | first in encounter order | sequential stage | [ScalableBloomFilter] capped at `maxBytes` |
+///
+/// ```java
+/// List<Account> firstByName = accounts.parallelStream()
+///         .gather(DistinctGatherers.unorderedDistinctBy(Account::firstName))
+///         .toList();
+/// ```
+public final class DistinctGatherers {
+
+    private static final Object NULL_KEY = new Object();
+
+    private DistinctGatherers() {
+    }
+
+    /// Keeps the first element, in encounter order, for every key.
+    ///
+    /// "First wins" in encounter order cannot be decided by independent splits:
+    /// a split that already pushed an element cannot take it back once it turns out
+    /// that a split on its left had the same key. So this gatherer is sequential
+    /// (the stages before it still run in parallel) and streams: an element is
+    /// pushed right away when its key is new, and only the keys are retained.
+    public static <T, K> Gatherer<T, ?, T> distinctBy(Function<? super T, ? extends K> keyExtractor) {
+        return Gatherer.ofSequential(
+                HashSet<K>::new,
+                Gatherer.Integrator.ofGreedy((seen, element, downstream) ->
+                        !seen.add(keyExtractor.apply(element)) || downstream.push(element))
+        );
+    }
+
+    /// Keeps one element for every key, deduplicating the splits of a parallel stream
+    /// independently.
+    ///
+    /// Every split keeps the first element of each key in its own `LinkedHashMap`;
+    /// the combiner adds the keys the right split has and the left one lacks, and the
+    /// finisher pushes what is left. Splits never share state, so the gatherer can be
+    /// reused, composed with [Gatherer#andThen(Gatherer)] and run by concurrent
+    /// pipelines. Unlike [#distinctBy(Function)], nothing is pushed before the source is
+    /// exhausted, and every distinct element is held until then. Since the left split
+    /// wins a merge, the first element in encounter order is kept. `null` keys are
+    /// supported; `null` elements are not.
+    public static <T, K> Gatherer<T, ?, T> unorderedDistinctBy(Function<? super T, ? extends K> keyExtractor) {
+        return Gatherer.<T, LinkedHashMap<Object, T>, T>of(
+                LinkedHashMap::new,
+                Gatherer.Integrator.ofGreedy((firsts, element, _) -> {
+                    firsts.putIfAbsent(maskNull(keyExtractor.apply(element)), element);
+                    return true;
+                }),
+                (left, right) -> {
+                    right.forEach(left::putIfAbsent);
+                    return left;
+                },
+                (firsts, downstream) -> {
+                    for (T element : firsts.values()) {
+                        if (!downstream.push(element)) {
+                            return;
+                        }
+                    }
+                }
+        );
+    }
+
+    /// Keeps one element for (almost) every key in bounded memory.
+    ///
+    /// Keys are tested against a [ScalableBloomFilter] instead of being stored, so
+    /// the heap stays flat however many distinct keys go through. The price is that
+    /// a new key is dropped as a duplicate with probability `falsePositiveRate`;
+    /// a duplicate is never let through. Once `maxBytes` is used up the filter
+    /// stops growing and the false-drop rate climbs above the configured one.
+    ///
+    /// ```java
+    /// var deduplicated = events.parallelStream()
+    ///         .gather(DistinctGatherers.approximateDistinctBy(Event::id, 0.001, 256L << 20))
+    ///         .toList();
+    /// ```
+    ///
+    /// Like [#distinctBy(Function)], the gatherer is sequential (the stages before it
+    /// still run in parallel) and pushes right away. Per-split filters OR-merged in the
+    /// combiner would not deduplicate across splits: by the time two filters are
+    /// merged, both splits have already pushed their copy of a shared key, and a push
+    /// cannot be taken back. Buffering the elements until the merge, as
+    /// [#unorderedDistinctBy(Function)] does, would give up the memory bound.
+    ///
+    /// Every evaluation gets a fresh filter, also through [Gatherer#andThen(Gatherer)],
+    /// so a failed or abandoned run leaves no keys behind and concurrent pipelines do
+    /// not drop each other's keys.
+    ///
+    /// @param falsePositiveRate
+    ///   the accepted probability of dropping an element with a new key, in `(0, 1)`
+    /// @param maxBytes
+    ///   the memory cap of the filter
+    /// @throws IllegalArgumentException
+    ///   if the rate is not in `(0, 1)` or `maxBytes` is smaller than 8
+    public static <T, K> Gatherer<T, ?, T> approximateDistinctBy(Function<? super T, ? extends K> keyExtractor,
+                                                                double falsePositiveRate,
+                                                                long maxBytes) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("false-positive rate must be in (0, 1)");
+        }
+        if (maxBytes < Long.BYTES) {
+            throw new IllegalArgumentException("memory cap must be at least " + Long.BYTES + " bytes");
+        }
+        return Gatherer.ofSequential(
+                () -> new ScalableBloomFilter(falsePositiveRate, maxBytes),
+                Gatherer.Integrator.<ScalableBloomFilter, T, T>ofGreedy((filter, element, downstream) ->
+                        !filter.add(keyExtractor.apply(element)) || downstream.push(element))
+        );
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.gatherers;
+
+import java.util.stream.Gatherer;
+
+/// # FrequencyGatherers
+///
+/// Counting how often every element occurs, exactly or approximately.
+///
+/// | Gatherer | Memory | Result |
+/// |----------|--------|--------|
+/// | [#frequencies()] | one slot per distinct element | every element with its exact count |
+/// | [#heavyHitters(int, int)] | `capacity` counters | the `k` most frequent elements with an error bound |
+///
+/// A `HashMap<T, Counter>` based frequency map allocates a node and a counter object
+/// per key and an entry per result. Both gatherers here count in primitive `long`
+/// arrays, are parallel-capable (per-split tables merged by the combiner) and push
+/// one [Frequency] per reported element from the finisher.
+///
+/// ```java
+/// List<Frequency<String>> hotDomains = accounts.parallelStream()
+///         .map(account -> account.email().substring(account.email().indexOf('@') + 1))
+///         .gather(FrequencyGatherers.heavyHitters(1_000, 10))
+///         .toList();
+/// ```
+public final class FrequencyGatherers {
+
+    private FrequencyGatherers() {
+    }
+
+    /// An element with its count.
+    ///
+    /// The true count is between `count - error` and `count`; `error` is `0` for exact counts.
+    public record Frequency<T>(T value, long count, long error) {
+
+        /// The lower bound of the true count.
+        public long guaranteedCount() {
+            return count - error;
+        }
+    }
+
+    /// Every distinct element with its exact count, in no particular order.
+    ///
+    /// Counts are kept in an open-addressing table with `long` counts; splits count
+    /// into their own table and the combiner adds the smaller table into the larger.
+    public static <T> Gatherer<T, ?, Frequency<T>> frequencies() {
+        return Gatherer.of(
+                CountingTable<T>::new,
+                Gatherer.Integrator.ofGreedy((table, element, _) -> {
+                    table.add(element, 1);
+                    return true;
+                }),
+                (left, right) -> {
+                    if (left.size() < right.size()) {
+                        right.addAll(left);
+                        return right;
+                    }
+                    left.addAll(right);
+                    return left;
+                },
+                (table, downstream) -> {
+                    for (int slot = 0; slot < table.slots() && !downstream.isRejecting(); slot++) {
+                        if (table.isOccupied(slot)) {
+                            downstream.push(new Frequency<>(table.key(slot), table.count(slot), 0));
+                        }
+                    }
+                }
+        );
+    }
+
+    /// The `k` most frequent elements, most frequent first, in `O(capacity)` memory.
+    ///
+    /// Uses the Space-Saving algorithm with `capacity` counters:
+    ///
+    /// - every element occurring more than `n / capacity` times (out of `n`) is reported
+    ///   if it is among the `k` largest counts
+    /// - a reported `count` over-estimates the true count by at most its `error`,
+    ///   which is at most `n / capacity`
+    /// - splits keep their own counters; the combiner merges them, adding to a key
+    ///   missing from a full summary that summary's minimum count, as both count and error
+    ///
+    /// A `capacity` of a few times `k` gives tight bounds on skewed data
+    /// (names, domains, hot ids).
+    ///
+    /// @param capacity
+    ///   the number of monitored elements
+    /// @param k
+    ///   the number of elements to report, at most `capacity`
+    /// @throws IllegalArgumentException
+    ///   if `k` is not positive or is greater than `capacity`
+    public static <T> Gatherer<T, ?, Frequency<T>> heavyHitters(int capacity, int k) {
+        if (k <= 0 || k > capacity) {
+            throw new IllegalArgumentException("k must be between 1 and capacity");
+        }
+        return Gatherer.of(
+                () -> new SpaceSaving<T>(capacity),
+                Gatherer.Integrator.ofGreedy((summary, element, _) -> {
+                    summary.add(element);
+                    return true;
+                }),
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                },
+                (summary, downstream) -> {
+                    for (Frequency<T> frequency : summary.top(k, Frequency<T>::new)) {
+                        if (!downstream.push(frequency)) {
+                            return;
+                        }
+                    }
+                }
+        );
+    }
+}
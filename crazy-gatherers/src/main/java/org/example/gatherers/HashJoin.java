@@ -0,0 +1,373 @@
+package org.example.gatherers;
+
+import org.example.utils.BinaryCodec;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Gatherer;
+import java.util.stream.Stream;
+
+/// # HashJoin
+///
+/// Hash joins of a stream (the probe side) with another stream (the build side) on
+/// a primitive `long` key, such as `OrderDetails.accountId` and `Account.id`.
+///
+/// When a gatherer built from a join is evaluated, it first reads the whole build
+/// side into a hash table, then probes it with every element of the stream:
+///
+/// ```java
+/// List<AccountOrder> joined = orders.stream()
+///         .gather(HashJoin.<OrderDetails, Account>of(accounts::stream, OrderDetails::accountId, Account::id)
+///                 .inner(AccountOrder::new))
+///         .toList();
+/// ```
+///
+/// - [#inner(BiFunction)] pushes one result per matching pair
+/// - [#left(BiFunction)] also pushes the probe elements without a match, paired with `null`
+/// - [#semi()] pushes each probe element that has at least one match, once
+///
+/// Without [#spilling(BinaryCodec, BinaryCodec, int, Path)], results are pushed in
+/// probe encounter order (and build order among the matches of one element), and the
+/// build side must fit on the heap.
+///
+/// A join is immutable and every gatherer built from it is sequential. The build side
+/// supplier is called, and its stream closed, once per evaluation.
+public final class HashJoin<P, B> {
+
+    private enum Kind { INNER, LEFT, SEMI }
+
+    // power of two; partitions are picked by the top bits of the mixed key
+    private static final int PARTITIONS = 32;
+    private static final int PARTITION_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(PARTITIONS);
+    // deeper than this, a partition is one key with more rows than the budget: join it on the heap anyway
+    private static final int MAX_DEPTH = 4;
+
+    private final Supplier<? extends Stream<? extends B>> buildSide;
+    private final ToLongFunction<? super P> probeKey;
+    private final ToLongFunction<? super B> buildKey;
+    private final BinaryCodec<P> probeCodec;
+    private final BinaryCodec<B> buildCodec;
+    private final int maxBuildRowsInMemory;
+    private final Path directory;
+
+    private HashJoin(Supplier<? extends Stream<? extends B>> buildSide,
+                     ToLongFunction<? super P> probeKey,
+                     ToLongFunction<? super B> buildKey,
+                     BinaryCodec<P> probeCodec,
+                     BinaryCodec<B> buildCodec,
+                     int maxBuildRowsInMemory,
+                     Path directory) {
+        this.buildSide = buildSide;
+        this.probeKey = probeKey;
+        this.buildKey = buildKey;
+        this.probeCodec = probeCodec;
+        this.buildCodec = buildCodec;
+        this.maxBuildRowsInMemory = maxBuildRowsInMemory;
+        this.directory = directory;
+    }
+
+    /// A join of the probe stream with the stream supplied by `buildSide`, on equal keys.
+    public static <P, B> HashJoin<P, B> of(Supplier<? extends Stream<? extends B>> buildSide,
+                                           ToLongFunction<? super P> probeKey,
+                                           ToLongFunction<? super B> buildKey) {
+        return new HashJoin<>(Objects.requireNonNull(buildSide), Objects.requireNonNull(probeKey),
+                Objects.requireNonNull(buildKey), null, null, Integer.MAX_VALUE, null);
+    }
+
+    /// Same as [#spilling(BinaryCodec, BinaryCodec, int, Path)] with partitions spilled
+    /// to the default temporary directory.
+    public HashJoin<P, B> spilling(BinaryCodec<P> probeCodec, BinaryCodec<B> buildCodec, int maxBuildRowsInMemory) {
+        return spilling(probeCodec, buildCodec, maxBuildRowsInMemory, null);
+    }
+
+    /// A copy of this join that falls back to a grace hash join when the build side has
+    /// more than `maxBuildRowsInMemory` rows.
+    ///
+    /// Rows are then partitioned by key hash into 32 partitions, each spilled to its
+    /// own temporary file with `buildCodec`:
+    ///
+    /// 1. partition 0 stays on the heap as long as it fits the budget (a hybrid hash
+    ///    join); probe elements that fall into it are joined right away
+    /// 2. probe elements of the other partitions are spilled with `probeCodec`
+    /// 3. the finisher joins the spilled partitions one at a time, each loaded into a
+    ///    fresh hash table; a partition still over the budget is partitioned again
+    ///    with another hash
+    ///
+    /// Results of spilled partitions are pushed by the finisher, partition by
+    /// partition, so a spilling join does not keep probe encounter order. The spill
+    /// files are deleted when the finisher completes, or as soon as reading the build
+    /// side or integrating an element fails. I/O failures are rethrown as
+    /// [java.io.UncheckedIOException].
+    ///
+    /// Joining 300M orders with 50M accounts of ~150 bytes with a budget of 5M rows
+    /// keeps about 1 GB of accounts on the heap and writes both sides to disk once
+    /// (twice for partitions that have to be split again).
+    ///
+    /// @param directory
+    ///   where to create the spill files, `null` for the default temporary directory
+    /// @throws IllegalArgumentException
+    ///   if `maxBuildRowsInMemory` is less or equal to zero
+    public HashJoin<P, B> spilling(BinaryCodec<P> probeCodec,
+                                   BinaryCodec<B> buildCodec,
+                                   int maxBuildRowsInMemory,
+                                   Path directory) {
+        if (maxBuildRowsInMemory <= 0) {
+            throw new IllegalArgumentException("memory budget must be positive");
+        }
+        return new HashJoin<>(buildSide, probeKey, buildKey, Objects.requireNonNull(probeCodec),
+                Objects.requireNonNull(buildCodec), maxBuildRowsInMemory, directory);
+    }
+
+    /// Pushes `joiner.apply(probe, build)` for every pair of elements with equal keys.
+    public <R> Gatherer<P, ?, R> inner(BiFunction<? super P, ? super B, ? extends R> joiner) {
+        return gatherer(Kind.INNER, Objects.requireNonNull(joiner));
+    }
+
+    /// Like [#inner(BiFunction)], and pushes `joiner.apply(probe, null)` for every probe
+    /// element without a match.
+    public <R> Gatherer<P, ?, R> left(BiFunction<? super P, ? super B, ? extends R> joiner) {
+        return gatherer(Kind.LEFT, Objects.requireNonNull(joiner));
+    }
+
+    /// Pushes every probe element that has at least one match, once.
+    public Gatherer<P, ?, P> semi() {
+        return gatherer(Kind.SEMI, (probe, _) -> probe);
+    }
+
+    private <R> Gatherer<P, ?, R> gatherer(Kind kind, BiFunction<? super P, ? super B, ? extends R> joiner) {
+
+        class State {
+            final LongKeyTable<B> table = new LongKeyTable<>();
+            // null until the build side goes over the budget
+            List<SpillFile<B>> buildPartitions;
+            List<SpillFile.Run> buildRuns;
+            List<SpillFile<P>> probePartitions;
+            // whether partition 0 of the build side is on the heap
+            boolean residentZero;
+
+            State() {
+                try (Stream<? extends B> rows = buildSide.get()) {
+                    rows.forEach(this::addBuildRow);
+                    if (buildPartitions != null) {
+                        buildRuns = new ArrayList<>(PARTITIONS);
+                        for (SpillFile<B> partition : buildPartitions) {
+                            buildRuns.add(partition.endRun());
+                        }
+                    }
+                } catch (RuntimeException | Error e) {
+                    discard(e);
+                    throw e;
+                }
+            }
+
+            boolean integrate(P element, Gatherer.Downstream<? super R> downstream) {
+                try {
+                    long key = probeKey.applyAsLong(element);
+                    if (buildPartitions == null) {
+                        return probe(element, key, downstream);
+                    }
+                    int partition = partition(key, 0);
+                    if (partition == 0 && residentZero) {
+                        return probe(element, key, downstream);
+                    }
+                    probePartitions.get(partition).append(element);
+                    return true;
+                } catch (RuntimeException | Error e) {
+                    discard(e);
+                    throw e;
+                }
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                if (buildPartitions == null) {
+                    return;
+                }
+                try {
+                    for (int partition = residentZero ? 1 : 0; partition < PARTITIONS; partition++) {
+                        SpillFile<P> probes = probePartitions.get(partition);
+                        if (!join(buildPartitions.get(partition), buildRuns.get(partition), probes, probes.endRun(), 1, downstream)) {
+                            return;
+                        }
+                    }
+                } finally {
+                    close();
+                }
+            }
+
+            private void addBuildRow(B row) {
+                long key = buildKey.applyAsLong(row);
+                if (buildPartitions == null) {
+                    table.add(key, row);
+                    if (table.size() > maxBuildRowsInMemory) {
+                        startSpilling();
+                    }
+                } else if (residentZero && partition(key, 0) == 0) {
+                    table.add(key, row);
+                    if (table.size() > maxBuildRowsInMemory) {
+                        spillZero();
+                    }
+                } else {
+                    buildPartitions.get(partition(key, 0)).append(row);
+                }
+            }
+
+            // moves every row but those of partition 0 from the table to disk
+            private void startSpilling() {
+                buildPartitions = new ArrayList<>(PARTITIONS);
+                probePartitions = new ArrayList<>(PARTITIONS);
+                for (int partition = 0; partition < PARTITIONS; partition++) {
+                    buildPartitions.add(SpillFile.create(directory, buildCodec));
+                    probePartitions.add(SpillFile.create(directory, probeCodec));
+                }
+                List<B> zero = new ArrayList<>();
+                List<Long> zeroKeys = new ArrayList<>();
+                for (int row = 0; row < table.size(); row++) {
+                    long key = table.key(row);
+                    int partition = partition(key, 0);
+                    if (partition == 0) {
+                        zero.add(table.row(row));
+                        zeroKeys.add(key);
+                    } else {
+                        buildPartitions.get(partition).append(table.row(row));
+                    }
+                }
+                table.clear();
+                for (int row = 0; row < zero.size(); row++) {
+                    table.add(zeroKeys.get(row), zero.get(row));
+                }
+                residentZero = true;
+                if (table.size() > maxBuildRowsInMemory) {
+                    spillZero();
+                }
+            }
+
+            private void spillZero() {
+                for (int row = 0; row < table.size(); row++) {
+                    buildPartitions.getFirst().append(table.row(row));
+                }
+                table.clear();
+                residentZero = false;
+            }
+
+            // joins one spilled partition; false when the downstream rejected
+            private boolean join(SpillFile<B> build, SpillFile.Run buildRun,
+                                 SpillFile<P> probes, SpillFile.Run probeRun,
+                                 int depth, Gatherer.Downstream<? super R> downstream) {
+                if (probeRun.count() == 0) {
+                    return true;
+                }
+                if (buildRun.count() <= maxBuildRowsInMemory || depth > MAX_DEPTH) {
+                    table.clear();
+                    for (Iterator<B> rows = build.open(buildRun); rows.hasNext(); ) {
+                        B row = rows.next();
+                        table.add(buildKey.applyAsLong(row), row);
+                    }
+                    for (Iterator<P> elements = probes.open(probeRun); elements.hasNext(); ) {
+                        P element = elements.next();
+                        if (!probe(element, probeKey.applyAsLong(element), downstream)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                List<SpillFile<B>> subBuild = new ArrayList<>(PARTITIONS);
+                List<SpillFile<P>> subProbes = new ArrayList<>(PARTITIONS);
+                try {
+                    for (int partition = 0; partition < PARTITIONS; partition++) {
+                        subBuild.add(SpillFile.create(directory, buildCodec));
+                        subProbes.add(SpillFile.create(directory, probeCodec));
+                    }
+                    for (Iterator<B> rows = build.open(buildRun); rows.hasNext(); ) {
+                        B row = rows.next();
+                        subBuild.get(partition(buildKey.applyAsLong(row), depth)).append(row);
+                    }
+                    for (Iterator<P> elements = probes.open(probeRun); elements.hasNext(); ) {
+                        P element = elements.next();
+                        subProbes.get(partition(probeKey.applyAsLong(element), depth)).append(element);
+                    }
+                    for (int partition = 0; partition < PARTITIONS; partition++) {
+                        if (!join(subBuild.get(partition), subBuild.get(partition).endRun(),
+                                subProbes.get(partition), subProbes.get(partition).endRun(), depth + 1, downstream)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                } finally {
+                    subBuild.forEach(SpillFile::close);
+                    subProbes.forEach(SpillFile::close);
+                }
+            }
+
+            private boolean probe(P element, long key, Gatherer.Downstream<? super R> downstream) {
+                int row = table.first(key);
+                return switch (kind) {
+                    case SEMI -> row < 0 || downstream.push(joiner.apply(element, null));
+                    case LEFT -> row < 0 ? downstream.push(joiner.apply(element, null)) : pushMatches(element, row, downstream);
+                    case INNER -> pushMatches(element, row, downstream);
+                };
+            }
+
+            private boolean pushMatches(P element, int row, Gatherer.Downstream<? super R> downstream) {
+                for (; row >= 0; row = table.next(row)) {
+                    if (!downstream.push(joiner.apply(element, table.row(row)))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            // the finisher will not run after a failure: close (and so delete) the spill files now
+            private void discard(Throwable failure) {
+                try {
+                    close();
+                } catch (RuntimeException e) {
+                    failure.addSuppressed(e);
+                }
+            }
+
+            // closes every spill file, even when closing one of them fails
+            private void close() {
+                table.clear();
+                List<SpillFile<?>> files = new ArrayList<>(2 * PARTITIONS);
+                if (buildPartitions != null) {
+                    files.addAll(buildPartitions);
+                }
+                if (probePartitions != null) {
+                    files.addAll(probePartitions);
+                }
+                RuntimeException failure = null;
+                for (SpillFile<?> file : files) {
+                    try {
+                        file.close();
+                    } catch (RuntimeException e) {
+                        if (failure == null) {
+                            failure = e;
+                        } else {
+                            failure.addSuppressed(e);
+                        }
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        }
+
+        return Gatherer.ofSequential(
+                State::new,
+                Gatherer.Integrator.<State, P, R>ofGreedy((state, element, downstream) -> state.integrate(element, downstream)),
+                State::finish
+        );
+    }
+
+    // depth 0 uses the top bits of the table's own hash, deeper levels rehash with another seed
+    private static int partition(long key, int depth) {
+        return (int) (LongKeyTable.mix(key + depth * 0x9E3779B97F4A7C15L) >>> PARTITION_SHIFT);
+    }
+}
@@ -0,0 +1,365 @@
+package org.example.gatherers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Gatherer;
+
+/// # Instrumented
+///
+/// A [Gatherer] decorator that records what happens inside any gatherer
+/// without changing its behavior.
+///
+/// ```java
+/// var instrumented = Instrumented.wrap(distinctBy(Account::firstName));
+///
+/// accounts.parallelStream()
+///         .gather(instrumented)
+///         .toList();
+///
+/// IO.println(instrumented.metrics());
+/// ```
+///
+/// ## Recorded metrics
+///
+/// | Metric | Meaning |
+/// |--------|---------|
+/// | **elements in** | elements passed to the integrator |
+/// | **elements pushed** | elements pushed downstream (integrator and finisher) |
+/// | **integrator stops** | integrator calls that returned `false` |
+/// | **first rejection** | when a downstream `push` first returned `false` |
+/// | **combiner** | invocations and total time spent in the combiner |
+/// | **finisher** | invocations and total time spent in the finisher |
+/// | **threads** | distinct thread ids per stage (integrator, combiner, finisher) |
+/// | **push latency** | log2 histogram of the time spent in `downstream.push` |
+///
+/// ## Overhead
+///
+/// Per-element counters live in the state of the wrapped gatherer as plain `long` fields,
+/// are merged in the combiner and published once, from the finisher.
+/// Thread ids are recorded only when the thread changes, and push latency is
+/// sampled (every 16th push by default), so the wrapper can stay enabled in production.
+///
+/// Metrics are cumulative over every stream the wrapper has been used in,
+/// and only include evaluations that reached the finisher.
+///
+/// ## Parallelism
+///
+/// The wrapper keeps the nature of the wrapped gatherer: if it has no combiner
+/// (`Gatherer.ofSequential(...)`), the instrumented gatherer is sequential too,
+/// and a greedy integrator stays greedy.
+///
+/// @param <T> the type of input elements
+/// @param <A> the state type of the wrapped gatherer
+/// @param <R> the type of output elements
+public final class Instrumented<T, A, R> implements Gatherer<T, Instrumented.Probe<A, R>, R> {
+
+    private static final int DEFAULT_LATENCY_SAMPLE_INTERVAL = 16;
+    private static final int BUCKETS = 64;
+
+    private final Gatherer<T, A, R> delegate;
+    private final int latencySampleInterval;
+
+    private final LongAdder elementsIn = new LongAdder();
+    private final LongAdder elementsPushed = new LongAdder();
+    private final LongAdder integratorStops = new LongAdder();
+    private final AtomicReference<Instant> firstRejection = new AtomicReference<>();
+    private final LongAdder combinerCalls = new LongAdder();
+    private final LongAdder combinerNanos = new LongAdder();
+    private final LongAdder finisherCalls = new LongAdder();
+    private final LongAdder finisherNanos = new LongAdder();
+    private final Set<Long> integratorThreads = ConcurrentHashMap.newKeySet();
+    private final Set<Long> combinerThreads = ConcurrentHashMap.newKeySet();
+    private final Set<Long> finisherThreads = ConcurrentHashMap.newKeySet();
+    private final AtomicLongArray pushLatency = new AtomicLongArray(BUCKETS);
+
+    private Instrumented(Gatherer<T, A, R> delegate, int latencySampleInterval) {
+        this.delegate = delegate;
+        this.latencySampleInterval = latencySampleInterval;
+    }
+
+    /// Wraps the given gatherer, sampling push latency on every 16th push.
+    ///
+    /// @param gatherer
+    ///   the gatherer to instrument
+    /// @return
+    ///   an instrumented gatherer with the same behavior as `gatherer`
+    public static <T, A, R> Instrumented<T, A, R> wrap(Gatherer<T, A, R> gatherer) {
+        return wrap(gatherer, DEFAULT_LATENCY_SAMPLE_INTERVAL);
+    }
+
+    /// Wraps the given gatherer, sampling push latency on every `latencySampleInterval`-th push.
+    ///
+    /// @param gatherer
+    ///   the gatherer to instrument
+    /// @param latencySampleInterval
+    ///   `1` measures every push; larger values lower the overhead
+    /// @return
+    ///   an instrumented gatherer with the same behavior as `gatherer`
+    /// @throws IllegalArgumentException
+    ///   if `latencySampleInterval` is less or equal to zero
+    public static <T, A, R> Instrumented<T, A, R> wrap(Gatherer<T, A, R> gatherer, int latencySampleInterval) {
+        if (latencySampleInterval <= 0) {
+            throw new IllegalArgumentException("latency sample interval must be positive");
+        }
+        return new Instrumented<>(gatherer, latencySampleInterval);
+    }
+
+    @Override
+    public Supplier<Probe<A, R>> initializer() {
+        Supplier<A> initializer = delegate.initializer();
+        return () -> new Probe<>(initializer.get(), latencySampleInterval);
+    }
+
+    @Override
+    public Integrator<Probe<A, R>, T, R> integrator() {
+        Integrator<A, T, R> integrator = delegate.integrator();
+        Integrator<Probe<A, R>, T, R> instrumented = (probe, element, downstream) -> {
+            probe.trackIntegratorThread(integratorThreads);
+            boolean more = probe.integrate(integrator, element, downstream);
+            if (probe.rejected && firstRejection.get() == null) {
+                firstRejection.compareAndSet(null, Instant.now());
+            }
+            return more;
+        };
+        return integrator instanceof Integrator.Greedy
+                ? Integrator.ofGreedy(instrumented::integrate)
+                : instrumented;
+    }
+
+    @Override
+    public BinaryOperator<Probe<A, R>> combiner() {
+        BinaryOperator<A> combiner = delegate.combiner();
+        if (combiner == Gatherer.<A>defaultCombiner()) {
+            return Gatherer.defaultCombiner();
+        }
+        return (left, right) -> {
+            combinerThreads.add(Thread.currentThread().threadId());
+            long start = System.nanoTime();
+            left.state = combiner.apply(left.state, right.state);
+            combinerNanos.add(System.nanoTime() - start);
+            combinerCalls.increment();
+            left.merge(right);
+            return left;
+        };
+    }
+
+    @Override
+    public BiConsumer<Probe<A, R>, Downstream<? super R>> finisher() {
+        BiConsumer<A, Downstream<? super R>> finisher = delegate.finisher();
+        return (probe, downstream) -> {
+            finisherThreads.add(Thread.currentThread().threadId());
+            long start = System.nanoTime();
+            probe.finish(finisher, downstream);
+            finisherNanos.add(System.nanoTime() - start);
+            finisherCalls.increment();
+            if (probe.rejected && firstRejection.get() == null) {
+                firstRejection.compareAndSet(null, Instant.now());
+            }
+            publish(probe);
+        };
+    }
+
+    /// Returns a snapshot of the metrics collected so far.
+    public Metrics metrics() {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = pushLatency.get(i);
+        }
+        return new Metrics(
+                elementsIn.sum(),
+                elementsPushed.sum(),
+                integratorStops.sum(),
+                firstRejection.get(),
+                combinerCalls.sum(),
+                Duration.ofNanos(combinerNanos.sum()),
+                finisherCalls.sum(),
+                Duration.ofNanos(finisherNanos.sum()),
+                integratorThreads,
+                combinerThreads,
+                finisherThreads,
+                histogram
+        );
+    }
+
+    private void publish(Probe<A, R> probe) {
+        elementsIn.add(probe.elementsIn);
+        elementsPushed.add(probe.elementsPushed);
+        integratorStops.add(probe.integratorStops);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (probe.pushLatency[i] != 0) {
+                pushLatency.addAndGet(i, probe.pushLatency[i]);
+            }
+        }
+    }
+
+    /// State of the instrumented gatherer: the wrapped state plus plain,
+    /// thread-confined counters.
+    ///
+    /// The probe also owns a reusable [Gatherer.Downstream] that forwards to the
+    /// real downstream, so no object is allocated per element.
+    public static final class Probe<A, R> {
+
+        private A state;
+        private final int latencySampleInterval;
+
+        private long elementsIn;
+        private long elementsPushed;
+        private long integratorStops;
+        private boolean rejected;
+        private final long[] pushLatency = new long[BUCKETS];
+        private Thread lastIntegratorThread;
+
+        private Downstream<? super R> target;
+        private final Downstream<R> tap = new Downstream<>() {
+            @Override
+            public boolean push(R element) {
+                boolean accepted;
+                if (elementsPushed++ % latencySampleInterval == 0) {
+                    long start = System.nanoTime();
+                    accepted = target.push(element);
+                    pushLatency[bucket(System.nanoTime() - start)]++;
+                } else {
+                    accepted = target.push(element);
+                }
+                if (!accepted) {
+                    rejected = true;
+                }
+                return accepted;
+            }
+
+            @Override
+            public boolean isRejecting() {
+                return target.isRejecting();
+            }
+        };
+
+        private Probe(A state, int latencySampleInterval) {
+            this.state = state;
+            this.latencySampleInterval = latencySampleInterval;
+        }
+
+        private <T> boolean integrate(Integrator<A, T, R> integrator, T element, Downstream<? super R> downstream) {
+            elementsIn++;
+            target = downstream;
+            boolean more = integrator.integrate(state, element, tap);
+            if (!more) {
+                integratorStops++;
+            }
+            return more;
+        }
+
+        private void finish(BiConsumer<A, Downstream<? super R>> finisher, Downstream<? super R> downstream) {
+            target = downstream;
+            finisher.accept(state, tap);
+        }
+
+        private void trackIntegratorThread(Set<Long> threads) {
+            Thread current = Thread.currentThread();
+            if (current != lastIntegratorThread) {
+                lastIntegratorThread = current;
+                threads.add(current.threadId());
+            }
+        }
+
+        private void merge(Probe<A, R> other) {
+            elementsIn += other.elementsIn;
+            elementsPushed += other.elementsPushed;
+            integratorStops += other.integratorStops;
+            rejected |= other.rejected;
+            for (int i = 0; i < BUCKETS; i++) {
+                pushLatency[i] += other.pushLatency[i];
+            }
+        }
+
+        private static int bucket(long nanos) {
+            return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+        }
+    }
+
+    /// Snapshot of the metrics of an [Instrumented] gatherer.
+    ///
+    /// Threads are identified by [Thread#threadId()], as virtual threads are unnamed.
+    /// `pushLatencyHistogram[i]` counts sampled pushes that took
+    /// between `2^i` and `2^(i+1)` nanoseconds; the array is copied in and out.
+    public record Metrics(
+            long elementsIn,
+            long elementsPushed,
+            long integratorStops,
+            Instant firstRejection,
+            long combinerCalls,
+            Duration combinerTime,
+            long finisherCalls,
+            Duration finisherTime,
+            Set<Long> integratorThreads,
+            Set<Long> combinerThreads,
+            Set<Long> finisherThreads,
+            long[] pushLatencyHistogram
+    ) {
+
+        public Metrics {
+            integratorThreads = Set.copyOf(integratorThreads);
+            combinerThreads = Set.copyOf(combinerThreads);
+            finisherThreads = Set.copyOf(finisherThreads);
+            pushLatencyHistogram = pushLatencyHistogram.clone();
+        }
+
+        @Override
+        public long[] pushLatencyHistogram() {
+            return pushLatencyHistogram.clone();
+        }
+
+        /// Returns an upper bound of the given push-latency percentile,
+        /// or [Duration#ZERO] if no push was sampled.
+        ///
+        /// @param percentile
+        ///   a value between `0` and `100`
+        public Duration pushLatencyPercentile(double percentile) {
+            long total = 0;
+            for (long count : pushLatencyHistogram) {
+                total += count;
+            }
+            if (total == 0) {
+                return Duration.ZERO;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < pushLatencyHistogram.length; i++) {
+                seen += pushLatencyHistogram[i];
+                if (seen >= rank) {
+                    return Duration.ofNanos(i >= 62 ? Long.MAX_VALUE : 1L << (i + 1));
+                }
+            }
+            return Duration.ofNanos(Long.MAX_VALUE);
+        }
+
+        @Override
+        public String toString() {
+            return """
+                    elements in         = %d
+                    elements pushed     = %d
+                    integrator stops    = %d
+                    first rejection     = %s
+                    combiner            = %d calls, %s
+                    finisher            = %d calls, %s
+                    integrator threads  = %d
+                    combiner threads    = %d
+                    finisher threads    = %d
+                    push latency p50    = %s
+                    push latency p99    = %s""".formatted(
+                    elementsIn, elementsPushed, integratorStops,
+                    firstRejection == null ? "-" : firstRejection,
+                    combinerCalls, combinerTime,
+                    finisherCalls, finisherTime,
+                    integratorThreads.size(), combinerThreads.size(), finisherThreads.size(),
+                    pushLatencyPercentile(50), pushLatencyPercentile(99));
+        }
+    }
+}
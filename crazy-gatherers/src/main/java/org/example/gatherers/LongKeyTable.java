@@ -0,0 +1,129 @@
+package org.example.gatherers;
+
+import java.util.Arrays;
+
+/// A hash multimap from primitive `long` keys to rows, the build side of [HashJoin].
+///
+/// Rows are stored in insertion order in parallel arrays (row, key, next row with
+/// the same key); distinct keys are probed linearly in an open-addressing table of
+/// `long` keys holding the first and last row of each key. Nothing is boxed and
+/// nothing is allocated per row beyond the arrays. The key table is kept at most
+/// half full.
+final class LongKeyTable<T> {
+
+    private static final int NONE = -1;
+
+    // distinct keys
+    private long[] keys = new long[16];
+    private int[] firstRows = filled(16);
+    private int[] lastRows = new int[16];
+    private int distinct;
+
+    // rows, in insertion order
+    private Object[] rows = new Object[16];
+    private long[] rowKeys = new long[16];
+    private int[] nextRows = new int[16];
+    private int size;
+
+    /// Adds a row; rows with the same key are returned in the order they were added.
+    void add(long key, T row) {
+        if (size == rows.length) {
+            int capacity = rows.length * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            rowKeys = Arrays.copyOf(rowKeys, capacity);
+            nextRows = Arrays.copyOf(nextRows, capacity);
+        }
+        int index = size++;
+        rows[index] = row;
+        rowKeys[index] = key;
+        nextRows[index] = NONE;
+
+        int slot = slot(key);
+        if (firstRows[slot] == NONE) {
+            keys[slot] = key;
+            firstRows[slot] = index;
+            lastRows[slot] = index;
+            if (++distinct * 2 > keys.length) {
+                rehash();
+            }
+        } else {
+            nextRows[lastRows[slot]] = index;
+            lastRows[slot] = index;
+        }
+    }
+
+    /// The first row with `key`, or `-1`.
+    int first(long key) {
+        return firstRows[slot(key)];
+    }
+
+    /// The row after `row` with the same key, or `-1`.
+    int next(int row) {
+        return nextRows[row];
+    }
+
+    @SuppressWarnings("unchecked")
+    T row(int row) {
+        return (T) rows[row];
+    }
+
+    long key(int row) {
+        return rowKeys[row];
+    }
+
+    /// The number of rows.
+    int size() {
+        return size;
+    }
+
+    /// Removes all rows, keeping the arrays.
+    void clear() {
+        Arrays.fill(rows, 0, size, null);
+        Arrays.fill(firstRows, NONE);
+        size = 0;
+        distinct = 0;
+    }
+
+    /// The 64-bit finalizer of MurmurHash3, which spreads consecutive ids over all bits.
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // the slot holding key, or the empty slot where it belongs
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (firstRows[slot] != NONE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldFirstRows = firstRows;
+        int[] oldLastRows = lastRows;
+        keys = new long[oldKeys.length * 2];
+        firstRows = filled(keys.length);
+        lastRows = new int[keys.length];
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldFirstRows[old] != NONE) {
+                int slot = slot(oldKeys[old]);
+                keys[slot] = oldKeys[old];
+                firstRows[slot] = oldFirstRows[old];
+                lastRows[slot] = oldLastRows[old];
+            }
+        }
+    }
+
+    private static int[] filled(int length) {
+        int[] slots = new int[length];
+        Arrays.fill(slots, NONE);
+        return slots;
+    }
+}
@@ -0,0 +1,457 @@
+package org.example.gatherers;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.stream.BaseStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/// # PrimitiveGatherers
+///
+/// Primitive-specialized versions of the gatherers used by the integer pipelines
+/// (`collapseConsecutive`, `increasingSequence`, `every`, `windowFixed`,
+/// `windowSliding`, `scan` and `fold`).
+///
+/// [java.util.stream.Gatherer] is only available on `Stream<T>`, so on boxed input every element
+/// is an `Integer`, state is kept in `AtomicInteger` / `AtomicReference` and runs are
+/// collected into `List<Integer>`. The operations here run directly over [IntStream] and
+/// [LongStream] sources (use [Arrays#stream(int[])] for `int[]`):
+///
+/// - state lives in primitive fields
+/// - values are read with `nextInt()` / `nextLong()`, never boxed
+/// - runs and windows are emitted as `int[]` / `long[]` slices
+///
+/// Each operation is lazy and sequential, like `Gatherer.ofSequential(...)`:
+/// it pulls from the source only as far as the downstream consumes, and closing the
+/// returned stream closes the source.
+///
+/// ```java
+/// PrimitiveGatherers.collapseConsecutive(IntStream.of(1, 1, 2, 2, 2, 3, 1, 1, 4))
+///         .toArray(); // [1, 2, 3, 1, 4]
+/// ```
+public final class PrimitiveGatherers {
+
+    private static final int ORDERED = Spliterator.ORDERED | Spliterator.NONNULL;
+
+    private PrimitiveGatherers() {
+    }
+
+    // ---------------------------------------------------------------- collapseConsecutive
+
+    /// Removes consecutive duplicates, keeping encounter order.
+    ///
+    /// `[1, 1, 2, 2, 2, 3, 1, 1, 4]` → `[1, 2, 3, 1, 4]`
+    public static IntStream collapseConsecutive(IntStream source) {
+        PrimitiveIterator.OfInt values = source.iterator();
+        return intStream(source, new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE, ORDERED) {
+            boolean started;
+            int last;
+
+            @Override
+            public boolean tryAdvance(IntConsumer action) {
+                while (values.hasNext()) {
+                    int value = values.nextInt();
+                    if (!started || value != last) {
+                        started = true;
+                        last = value;
+                        action.accept(value);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /// Removes consecutive duplicates, keeping encounter order.
+    public static LongStream collapseConsecutive(LongStream source) {
+        PrimitiveIterator.OfLong values = source.iterator();
+        return longStream(source, new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE, ORDERED) {
+            boolean started;
+            long last;
+
+            @Override
+            public boolean tryAdvance(LongConsumer action) {
+                while (values.hasNext()) {
+                    long value = values.nextLong();
+                    if (!started || value != last) {
+                        started = true;
+                        last = value;
+                        action.accept(value);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------- increasingSequence
+
+    /// Splits the source into maximal strictly increasing runs.
+    ///
+    /// `[2, 1, 3, 4, 5, 4, 3, 2, 1]` → `[[2], [1, 3, 4, 5], [4], [3], [2], [1]]`
+    public static Stream<int[]> increasingSequence(IntStream source) {
+        PrimitiveIterator.OfInt values = source.iterator();
+        return stream(source, new Spliterators.AbstractSpliterator<int[]>(Long.MAX_VALUE, ORDERED) {
+            int[] run = new int[16];
+            int length;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super int[]> action) {
+                while (values.hasNext()) {
+                    int value = values.nextInt();
+                    if (length > 0 && value <= run[length - 1]) {
+                        int[] emit = Arrays.copyOf(run, length);
+                        run[0] = value;
+                        length = 1;
+                        action.accept(emit);
+                        return true;
+                    }
+                    if (length == run.length) {
+                        run = Arrays.copyOf(run, length * 2);
+                    }
+                    run[length++] = value;
+                }
+                if (length > 0) {
+                    int[] emit = Arrays.copyOf(run, length);
+                    length = 0;
+                    action.accept(emit);
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /// Splits the source into maximal strictly increasing runs.
+    public static Stream<long[]> increasingSequence(LongStream source) {
+        PrimitiveIterator.OfLong values = source.iterator();
+        return stream(source, new Spliterators.AbstractSpliterator<long[]>(Long.MAX_VALUE, ORDERED) {
+            long[] run = new long[16];
+            int length;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super long[]> action) {
+                while (values.hasNext()) {
+                    long value = values.nextLong();
+                    if (length > 0 && value <= run[length - 1]) {
+                        long[] emit = Arrays.copyOf(run, length);
+                        run[0] = value;
+                        length = 1;
+                        action.accept(emit);
+                        return true;
+                    }
+                    if (length == run.length) {
+                        run = Arrays.copyOf(run, length * 2);
+                    }
+                    run[length++] = value;
+                }
+                if (length > 0) {
+                    long[] emit = Arrays.copyOf(run, length);
+                    length = 0;
+                    action.accept(emit);
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------- every
+
+    /// Keeps every `step`-th element: with a step of 2, `[1, 2, 3, 4, 5]` → `[2, 4]`.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `step` is less or equal to zero
+    public static IntStream every(IntStream source, int step) {
+        requirePositive(step, "step");
+        PrimitiveIterator.OfInt values = source.iterator();
+        return intStream(source, new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE, ORDERED) {
+            long position;
+
+            @Override
+            public boolean tryAdvance(IntConsumer action) {
+                while (values.hasNext()) {
+                    int value = values.nextInt();
+                    if (++position % step == 0) {
+                        action.accept(value);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /// Keeps every `step`-th element.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `step` is less or equal to zero
+    public static LongStream every(LongStream source, int step) {
+        requirePositive(step, "step");
+        PrimitiveIterator.OfLong values = source.iterator();
+        return longStream(source, new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE, ORDERED) {
+            long position;
+
+            @Override
+            public boolean tryAdvance(LongConsumer action) {
+                while (values.hasNext()) {
+                    long value = values.nextLong();
+                    if (++position % step == 0) {
+                        action.accept(value);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------- windowFixed
+
+    /// Groups elements into `int[]` windows of `size`; the last window may be shorter.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `size` is less or equal to zero
+    public static Stream<int[]> windowFixed(IntStream source, int size) {
+        requirePositive(size, "window size");
+        PrimitiveIterator.OfInt values = source.iterator();
+        return stream(source, new Spliterators.AbstractSpliterator<int[]>(Long.MAX_VALUE, ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super int[]> action) {
+                int[] window = new int[size];
+                int length = 0;
+                while (length < size && values.hasNext()) {
+                    window[length++] = values.nextInt();
+                }
+                if (length == 0) {
+                    return false;
+                }
+                action.accept(length == size ? window : Arrays.copyOf(window, length));
+                return true;
+            }
+        });
+    }
+
+    /// Groups elements into `long[]` windows of `size`; the last window may be shorter.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `size` is less or equal to zero
+    public static Stream<long[]> windowFixed(LongStream source, int size) {
+        requirePositive(size, "window size");
+        PrimitiveIterator.OfLong values = source.iterator();
+        return stream(source, new Spliterators.AbstractSpliterator<long[]>(Long.MAX_VALUE, ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super long[]> action) {
+                long[] window = new long[size];
+                int length = 0;
+                while (length < size && values.hasNext()) {
+                    window[length++] = values.nextLong();
+                }
+                if (length == 0) {
+                    return false;
+                }
+                action.accept(length == size ? window : Arrays.copyOf(window, length));
+                return true;
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------- windowSliding
+
+    /// Emits overlapping `int[]` windows of `size`, one per incoming element once
+    /// the window is full. A source shorter than `size` yields a single shorter window,
+    /// like [java.util.stream.Gatherers#windowSliding(int)].
+    ///
+    /// The last `size` values are kept in a primitive ring buffer.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `size` is less or equal to zero
+    public static Stream<int[]> windowSliding(IntStream source, int size) {
+        requirePositive(size, "window size");
+        PrimitiveIterator.OfInt values = source.iterator();
+        return stream(source, new Spliterators.AbstractSpliterator<int[]>(Long.MAX_VALUE, ORDERED) {
+            final int[] ring = new int[size];
+            int head;
+            int length;
+            boolean emitted;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super int[]> action) {
+                while (values.hasNext()) {
+                    int value = values.nextInt();
+                    if (length < size) {
+                        ring[length++] = value;
+                    } else {
+                        ring[head] = value;
+                        head = (head + 1) % size;
+                    }
+                    if (length == size) {
+                        emitted = true;
+                        action.accept(snapshot());
+                        return true;
+                    }
+                }
+                if (!emitted && length > 0) {
+                    emitted = true;
+                    action.accept(Arrays.copyOf(ring, length));
+                    return true;
+                }
+                return false;
+            }
+
+            private int[] snapshot() {
+                int[] window = new int[size];
+                System.arraycopy(ring, head, window, 0, size - head);
+                System.arraycopy(ring, 0, window, size - head, head);
+                return window;
+            }
+        });
+    }
+
+    /// Emits overlapping `long[]` windows of `size`, one per incoming element once
+    /// the window is full.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `size` is less or equal to zero
+    public static Stream<long[]> windowSliding(LongStream source, int size) {
+        requirePositive(size, "window size");
+        PrimitiveIterator.OfLong values = source.iterator();
+        return stream(source, new Spliterators.AbstractSpliterator<long[]>(Long.MAX_VALUE, ORDERED) {
+            final long[] ring = new long[size];
+            int head;
+            int length;
+            boolean emitted;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super long[]> action) {
+                while (values.hasNext()) {
+                    long value = values.nextLong();
+                    if (length < size) {
+                        ring[length++] = value;
+                    } else {
+                        ring[head] = value;
+                        head = (head + 1) % size;
+                    }
+                    if (length == size) {
+                        emitted = true;
+                        action.accept(snapshot());
+                        return true;
+                    }
+                }
+                if (!emitted && length > 0) {
+                    emitted = true;
+                    action.accept(Arrays.copyOf(ring, length));
+                    return true;
+                }
+                return false;
+            }
+
+            private long[] snapshot() {
+                long[] window = new long[size];
+                System.arraycopy(ring, head, window, 0, size - head);
+                System.arraycopy(ring, 0, window, size - head, head);
+                return window;
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------- scan / fold
+
+    /// Emits every intermediate result of folding the source,
+    /// like [java.util.stream.Gatherers#scan(java.util.function.Supplier, java.util.function.BiFunction)].
+    ///
+    /// `scan(IntStream.of(1, 2, 3), 0, Integer::sum)` → `[1, 3, 6]`
+    public static IntStream scan(IntStream source, int initial, IntBinaryOperator scanner) {
+        PrimitiveIterator.OfInt values = source.iterator();
+        return intStream(source, new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE, ORDERED) {
+            int current = initial;
+
+            @Override
+            public boolean tryAdvance(IntConsumer action) {
+                if (!values.hasNext()) {
+                    return false;
+                }
+                current = scanner.applyAsInt(current, values.nextInt());
+                action.accept(current);
+                return true;
+            }
+        });
+    }
+
+    /// Emits every intermediate result of folding the source.
+    public static LongStream scan(LongStream source, long initial, LongBinaryOperator scanner) {
+        PrimitiveIterator.OfLong values = source.iterator();
+        return longStream(source, new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE, ORDERED) {
+            long current = initial;
+
+            @Override
+            public boolean tryAdvance(LongConsumer action) {
+                if (!values.hasNext()) {
+                    return false;
+                }
+                current = scanner.applyAsLong(current, values.nextLong());
+                action.accept(current);
+                return true;
+            }
+        });
+    }
+
+    /// Folds the source from left to right, like
+    /// [java.util.stream.Gatherers#fold(java.util.function.Supplier, java.util.function.BiFunction)].
+    ///
+    /// Unlike [IntStream#reduce(int, IntBinaryOperator)], the folder does not
+    /// have to be associative: elements are always combined in encounter order.
+    public static int fold(IntStream source, int initial, IntBinaryOperator folder) {
+        try (source) {
+            int result = initial;
+            PrimitiveIterator.OfInt values = source.iterator();
+            while (values.hasNext()) {
+                result = folder.applyAsInt(result, values.nextInt());
+            }
+            return result;
+        }
+    }
+
+    /// Folds the source from left to right.
+    public static long fold(LongStream source, long initial, LongBinaryOperator folder) {
+        try (source) {
+            long result = initial;
+            PrimitiveIterator.OfLong values = source.iterator();
+            while (values.hasNext()) {
+                result = folder.applyAsLong(result, values.nextLong());
+            }
+            return result;
+        }
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private static IntStream intStream(IntStream source, Spliterator.OfInt spliterator) {
+        return StreamSupport.intStream(spliterator, false).onClose(source::close);
+    }
+
+    private static LongStream longStream(LongStream source, Spliterator.OfLong spliterator) {
+        return StreamSupport.longStream(spliterator, false).onClose(source::close);
+    }
+
+    private static <R> Stream<R> stream(BaseStream<?, ?> source, Spliterator<R> spliterator) {
+        return StreamSupport.stream(spliterator, false).onClose(source::close);
+    }
+
+    private static void requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+    }
+}
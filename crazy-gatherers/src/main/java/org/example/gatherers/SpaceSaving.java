@@ -0,0 +1,246 @@
+package org.example.gatherers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/// The Space-Saving heavy-hitter summary (Metwally, Agrawal, El Abbadi, 2005).
+///
+/// At most `capacity` keys are monitored, each with a count and an error:
+///
+/// - a monitored key has its count incremented
+/// - a new key, when all counters are taken, replaces the key with the smallest
+///   count `min`; it inherits `min` as its error and starts at `min + 1`
+///
+/// So for every monitored key `count - error <= true count <= count`, the error of
+/// any key is at most `total / capacity`, and every key occurring more than
+/// `total / capacity` times is monitored.
+///
+/// The counters form a min-heap on count (parallel arrays), and an open-addressing
+/// table maps keys to heap positions. Replacing a key removes it from the table
+/// with backward-shift deletion, so the table never fills up with tombstones.
+final class SpaceSaving<T> {
+
+    private static final Object NULL_KEY = new Object();
+
+    private final int capacity;
+
+    // min-heap by count
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] hashes;
+    private final int[] slotOf;
+    private int size;
+
+    // heap index + 1, 0 = empty
+    private final int[] table;
+    private final int mask;
+
+    private long total;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.hashes = new int[capacity];
+        this.slotOf = new int[capacity];
+        this.table = new int[Math.max(4, Integer.highestOneBit(capacity - 1 | 1) << 2)];
+        this.mask = table.length - 1;
+    }
+
+    /// Counts one occurrence of `key`.
+    void add(T key) {
+        Object masked = key == null ? NULL_KEY : key;
+        offer(masked, CountingTable.hash(masked), 1, 0);
+        total++;
+    }
+
+    /// Merges `other` into this summary, keeping the `capacity` largest counts.
+    ///
+    /// A key missing from a full summary may still have occurred up to that
+    /// summary's minimum count, so the minimum is added to both its count and its error.
+    void addAll(SpaceSaving<T> other) {
+        long minThis = size == capacity ? counts[0] : 0;
+        long minOther = other.size == other.capacity ? other.counts[0] : 0;
+
+        int merged = 0;
+        Object[] mergedKeys = new Object[size + other.size];
+        int[] mergedHashes = new int[mergedKeys.length];
+        long[] mergedCounts = new long[mergedKeys.length];
+        long[] mergedErrors = new long[mergedKeys.length];
+
+        for (int i = 0; i < size; i++) {
+            int j = other.indexOf(keys[i], hashes[i]);
+            mergedKeys[merged] = keys[i];
+            mergedHashes[merged] = hashes[i];
+            mergedCounts[merged] = counts[i] + (j >= 0 ? other.counts[j] : minOther);
+            mergedErrors[merged] = errors[i] + (j >= 0 ? other.errors[j] : minOther);
+            merged++;
+        }
+        for (int j = 0; j < other.size; j++) {
+            if (indexOf(other.keys[j], other.hashes[j]) < 0) {
+                mergedKeys[merged] = other.keys[j];
+                mergedHashes[merged] = other.hashes[j];
+                mergedCounts[merged] = other.counts[j] + minThis;
+                mergedErrors[merged] = other.errors[j] + minThis;
+                merged++;
+            }
+        }
+
+        // keep the largest counts
+        Integer[] order = new Integer[merged];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Long.compare(mergedCounts[b], mergedCounts[a]));
+
+        Arrays.fill(table, 0);
+        Arrays.fill(keys, null);
+        size = 0;
+        for (int i = 0; i < Math.min(capacity, merged); i++) {
+            int index = order[i];
+            offer(mergedKeys[index], mergedHashes[index], mergedCounts[index], mergedErrors[index]);
+        }
+        total += other.total;
+    }
+
+    /// The number of occurrences counted.
+    long total() {
+        return total;
+    }
+
+    /// The `k` monitored keys with the largest counts, largest first.
+    <R> List<R> top(int k, Counter<? super T, ? extends R> counter) {
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Long.compare(counts[b], counts[a]));
+        List<R> top = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < Math.min(k, size); i++) {
+            int index = order[i];
+            top.add(counter.of(key(index), counts[index], errors[index]));
+        }
+        return top;
+    }
+
+    /// Builds the reported value of a monitored key.
+    interface Counter<T, R> {
+        R of(T key, long count, long error);
+    }
+
+    // adds weight to a monitored key, fills a free counter, or replaces the minimum
+    private void offer(Object key, int hash, long weight, long error) {
+        int index = indexOf(key, hash);
+        if (index >= 0) {
+            counts[index] += weight;
+            errors[index] += error;
+            siftDown(index);
+            return;
+        }
+        if (size < capacity) {
+            index = size++;
+            keys[index] = key;
+            hashes[index] = hash;
+            counts[index] = weight;
+            errors[index] = error;
+            insert(index);
+            siftUp(index);
+            return;
+        }
+        delete(slotOf[0]);
+        long min = counts[0];
+        keys[0] = key;
+        hashes[0] = hash;
+        counts[0] = min + weight;
+        errors[0] = min + error;
+        insert(0);
+        siftDown(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T key(int index) {
+        return keys[index] == NULL_KEY ? null : (T) keys[index];
+    }
+
+    private int indexOf(Object key, int hash) {
+        for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (hashes[index] == hash && keys[index].equals(key)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int index) {
+        int slot = hashes[index] & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+        slotOf[index] = slot;
+    }
+
+    // backward-shift deletion for linear probing
+    private void delete(int slot) {
+        int hole = slot;
+        table[hole] = 0;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int index = table[next] - 1;
+            int home = hashes[index] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                slotOf[index] = hole;
+                table[next] = 0;
+                hole = next;
+            }
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && counts[child + 1] < counts[child]) {
+                child++;
+            }
+            if (counts[index] <= counts[child]) {
+                return;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Object key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        long error = errors[i];
+        errors[i] = errors[j];
+        errors[j] = error;
+        int hash = hashes[i];
+        hashes[i] = hashes[j];
+        hashes[j] = hash;
+        int slot = slotOf[i];
+        slotOf[i] = slotOf[j];
+        slotOf[j] = slot;
+        table[slotOf[i]] = i + 1;
+        table[slotOf[j]] = j + 1;
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.gatherers;
+
+import org.example.utils.BinaryCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/// A temporary file that gatherers spill sorted runs (or partitions) of elements to.
+///
+/// Runs are appended one after the other and read back independently with
+/// positional reads, so any number of runs can be merged over one [FileChannel].
+/// Every record is framed as an `int` length followed by the bytes written by the
+/// [BinaryCodec]. The file is deleted when closed.
+///
+/// I/O failures are rethrown as [UncheckedIOException].
+final class SpillFile<T> implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /// A run of records in the file, `[start, end)` in bytes.
+    record Run(long start, long end, long count) {
+    }
+
+    private final BinaryCodec<T> codec;
+    private final FileChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ByteBuffer scratch = ByteBuffer.allocate(256);
+    private long size;
+
+    private long runStart = -1;
+    private long runCount;
+
+    private SpillFile(BinaryCodec<T> codec, FileChannel channel) {
+        this.codec = codec;
+        this.channel = channel;
+    }
+
+    /// Creates the file in `directory`, or in the default temporary directory if it is `null`.
+    static <T> SpillFile<T> create(Path directory, BinaryCodec<T> codec) {
+        try {
+            Path path = directory == null
+                    ? Files.createTempFile("gatherer-", ".spill")
+                    : Files.createTempFile(directory, "gatherer-", ".spill");
+            return new SpillFile<>(codec, FileChannel.open(path, READ, WRITE, DELETE_ON_CLOSE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /// Writes all elements as one run.
+    Run write(Iterable<? extends T> elements) {
+        for (T element : elements) {
+            append(element);
+        }
+        return endRun();
+    }
+
+    /// Appends one element to the current run, starting a run if needed.
+    void append(T element) {
+        if (runStart < 0) {
+            runStart = size + out.position();
+            runCount = 0;
+        }
+        ByteBuffer record = encode(element);
+        int length = record.remaining();
+        if (out.remaining() < Integer.BYTES + length) {
+            flush();
+        }
+        if (out.remaining() < Integer.BYTES + length) {
+            // larger than the output buffer: write it directly
+            out.putInt(length);
+            flush();
+            writeFully(record);
+        } else {
+            out.putInt(length).put(record);
+        }
+        runCount++;
+    }
+
+    /// Ends the current run and returns it; an empty run if nothing was appended.
+    Run endRun() {
+        flush();
+        Run run = runStart < 0 ? new Run(size, size, 0) : new Run(runStart, size, runCount);
+        runStart = -1;
+        return run;
+    }
+
+    /// Reads a run back; the reader is independent of other readers and of further writes.
+    Reader open(Run run) {
+        return new Reader(run);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ByteBuffer encode(T element) {
+        while (true) {
+            scratch.clear();
+            try {
+                codec.write(element, scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException _) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    private void flush() {
+        out.flip();
+        writeFully(out);
+        out.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                size += channel.write(buffer, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /// Iterates over the elements of one run.
+    final class Reader implements Iterator<T> {
+
+        private long position;
+        private final long end;
+        private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE).limit(0);
+
+        private Reader(Run run) {
+            this.position = run.start();
+            this.end = run.end();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return in.hasRemaining() || position < end;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ensure(Integer.BYTES);
+            int length = in.getInt();
+            ensure(length);
+            ByteBuffer record = in.slice(in.position(), length);
+            in.position(in.position() + length);
+            return codec.read(record);
+        }
+
+        private void ensure(int bytes) {
+            if (in.remaining() >= bytes) {
+                return;
+            }
+            if (in.capacity() < bytes) {
+                in = ByteBuffer.allocate(Integer.highestOneBit(bytes) << 1).put(in).flip();
+            }
+            in.compact();
+            try {
+                while (in.position() < bytes) {
+                    if (position >= end) {
+                        throw new IOException("truncated record in spill file");
+                    }
+                    int limit = (int) Math.min(in.capacity(), in.position() + (end - position));
+                    in.limit(limit);
+                    int read = channel.read(in, position);
+                    if (read < 0) {
+                        throw new IOException("unexpected end of spill file");
+                    }
+                    position += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            in.flip();
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package org.example.gatherers;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Gatherer;
+
+/// # WindowGatherers
+///
+/// Sliding and fixed windows backed by a fixed-capacity ring buffer.
+///
+/// [java.util.stream.Gatherers#windowSliding(int)] (and a hand-written
+/// `ArrayDeque` + `List.copyOf` gatherer) copies the whole window for every
+/// incoming element, so a window of size `w` costs `O(n·w)` time and allocation.
+/// The gatherers here allocate a single `Object[size]` per stream and push a
+/// **read-only view** of it instead:
+///
+/// - a view is valid only until the next element enters the window,
+///   so it must be consumed right away (`forEach`, `map(window -> ...)`, ...)
+/// - an iterator still open over a view when the window moves on throws
+///   [java.util.ConcurrentModificationException]
+/// - consumers that retain windows (`toList()`, `collect(...)`) must opt in to
+///   [WindowGatherer#copying()], which pushes an unmodifiable copy of every window
+///
+/// Window semantics are the same as in [java.util.stream.Gatherers]: a stream shorter than
+/// the sliding window yields one partial window, and the last fixed window may be shorter.
+///
+/// ```java
+/// long total = accounts.stream()
+///         .map(Account::balance)
+///         .gather(WindowGatherers.<BigDecimal>windowSliding(1000))
+///         .map(window -> average(window))       // consumed immediately: no copy
+///         .count();
+///
+/// List<List<String>> batches = emails.stream()
+///         .gather(WindowGatherers.<String>windowFixed(500).copying())
+///         .toList();                            // retained: copies required
+/// ```
+public final class WindowGatherers {
+
+    private WindowGatherers() {
+    }
+
+    /// Overlapping windows of `size`, one per element once the window is full.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `size` is less or equal to zero
+    public static <T> WindowGatherer<T> windowSliding(int size) {
+        return new WindowGatherer<>(size, true, false);
+    }
+
+    /// Consecutive non-overlapping windows of `size`.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `size` is less or equal to zero
+    public static <T> WindowGatherer<T> windowFixed(int size) {
+        return new WindowGatherer<>(size, false, false);
+    }
+
+    /// Overlapping windows of `size`, mapped to a result, that can be built in parallel.
+    ///
+    /// Sliding windows need no alignment, only the neighbours of a split:
+    ///
+    /// - each split slides its elements through its own ring buffer and maps every
+    ///   window that lies entirely inside the split
+    /// - it also keeps its first and last `size - 1` elements
+    /// - the combiner slides `left.last ++ right.first` through a fresh buffer to
+    ///   map the windows that straddle the boundary, and places their results
+    ///   between the results of the two splits
+    /// - results are pushed in the finisher (a combiner cannot push), so the output
+    ///   is in encounter order and identical to the sequential [#windowSliding(int)]
+    ///   followed by `map(mapper)`
+    ///
+    /// Only mapped results are retained, so `mapper` should reduce a window to
+    /// something small (an average, a sum, a flag); `List::copyOf` gives plain
+    /// windows at the cost of `size` references per window.
+    /// The list passed to `mapper` is a read-only view valid only for the duration of the call.
+    ///
+    /// ```java
+    /// List<BigDecimal> movingAverage = balances.parallelStream()
+    ///         .gather(WindowGatherers.windowSliding(30, window -> average(window)))
+    ///         .toList();
+    /// ```
+    ///
+    /// A stream shorter than `size` yields the mapping of one partial window.
+    /// Like the other parallel variants, results are only pushed at the end and
+    /// this gatherer does not short-circuit.
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `size` is less or equal to zero
+    public static <T, R> Gatherer<T, ?, R> windowSliding(int size, Function<? super List<T>, ? extends R> mapper) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("window size must be positive");
+        }
+
+        class State {
+            long count;
+            final Window<T> ring = new Window<>(size);
+            // the first size - 1 elements
+            final ArrayList<T> head = new ArrayList<>();
+            // results of every complete window, in encounter order
+            final ArrayList<R> results = new ArrayList<>();
+
+            boolean integrate(T element) {
+                if (head.size() < size - 1) {
+                    head.add(element);
+                }
+                ring.slide(element);
+                count++;
+                if (ring.isFull()) {
+                    results.add(mapper.apply(ring));
+                }
+                return true;
+            }
+
+            // the last size - 1 elements
+            List<T> tail() {
+                return ring.subList(Math.max(0, ring.size() - (size - 1)), ring.size());
+            }
+
+            State combine(State right) {
+                if (right.count == 0) {
+                    return this;
+                }
+                if (count == 0) {
+                    return right;
+                }
+
+                ArrayList<R> straddling = new ArrayList<>();
+                Window<T> boundary = new Window<>(size);
+                for (T element : tail()) {
+                    boundary.slide(element);
+                }
+                for (T element : right.head) {
+                    boundary.slide(element);
+                    if (boundary.isFull()) {
+                        straddling.add(mapper.apply(boundary));
+                    }
+                }
+                results.addAll(straddling);
+                results.addAll(right.results);
+
+                for (int i = 0; head.size() < size - 1 && i < right.head.size(); i++) {
+                    head.add(right.head.get(i));
+                }
+                // a right split shorter than the window keeps all its elements in head
+                List<T> last = right.count < size ? right.head : right.tail();
+                for (T element : last) {
+                    ring.slide(element);
+                }
+                count += right.count;
+                return this;
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                if (count > 0 && count < size) {
+                    downstream.push(mapper.apply(Collections.unmodifiableList(head)));
+                    return;
+                }
+                for (int i = 0; i < results.size() && !downstream.isRejecting(); i++) {
+                    downstream.push(results.get(i));
+                }
+            }
+        }
+
+        return Gatherer.of(
+                State::new,
+                Gatherer.Integrator.ofGreedy((state, element, _) -> state.integrate(element)),
+                State::combine,
+                State::finish
+        );
+    }
+
+    /// Consecutive non-overlapping windows of `size` that can be built in parallel.
+    ///
+    /// A split of a parallel stream does not know where it starts, so it cannot tell
+    /// where the window boundaries fall. Here every element carries its absolute,
+    /// 0-based position in the stream (a row number, a sequence id, the index of a
+    /// `SIZED` source), and the window of an element is `position / size`:
+    ///
+    /// - each split fills its windows independently; the first and the last window of
+    ///   a split may be fragments of a window shared with the neighbouring split
+    /// - the combiner stitches the left tail fragment and the right head fragment
+    ///   into one window and concatenates the rest
+    /// - windows are pushed in the finisher, because a combiner cannot push and
+    ///   pushes from the finisher always come after the ones from the splits;
+    ///   this keeps the output identical to the sequential [#windowFixed(int)]
+    ///
+    /// Because windows are only pushed at the end, this variant does not short-circuit:
+    /// prefer [#windowFixed(int)] for sequential or `limit`-ed pipelines.
+    ///
+    /// ```java
+    /// List<List<Account>> batches = accounts.parallelStream()
+    ///         .gather(WindowGatherers.windowFixed(500, account -> account.id() - 1))
+    ///         .toList();
+    /// ```
+    ///
+    /// @param size
+    ///   the number of elements per window
+    /// @param position
+    ///   the 0-based position of an element; positions must be consecutive in encounter order
+    /// @throws IllegalArgumentException
+    ///   if `size` is less or equal to zero
+    /// @throws IllegalStateException
+    ///   (when the stream is evaluated) if positions do not start at 0 or are not consecutive
+    public static <T> Gatherer<T, ?, List<T>> windowFixed(int size, ToLongFunction<? super T> position) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("window size must be positive");
+        }
+
+        class State {
+            long first = -1;
+            long next = -1;
+            // windows.get(i) is window number (first / size) + i
+            final ArrayList<Object[]> windows = new ArrayList<>();
+
+            boolean integrate(T element) {
+                long current = position.applyAsLong(element);
+                if (first < 0) {
+                    first = current;
+                } else if (current != next) {
+                    throw new IllegalStateException("expected position " + next + " but got " + current);
+                }
+                int slot = (int) (current % size);
+                if (slot == 0 || windows.isEmpty()) {
+                    windows.add(new Object[size]);
+                }
+                windows.getLast()[slot] = element;
+                next = current + 1;
+                return true;
+            }
+
+            State combine(State right) {
+                if (right.first < 0) {
+                    return this;
+                }
+                if (first < 0) {
+                    return right;
+                }
+                if (right.first != next) {
+                    throw new IllegalStateException("expected position " + next + " but got " + right.first);
+                }
+                int from = (int) (right.first % size);
+                List<Object[]> rest = right.windows;
+                if (from != 0) {
+                    int length = (int) Math.min(size - from, right.next - right.first);
+                    System.arraycopy(right.windows.getFirst(), from, windows.getLast(), from, length);
+                    rest = rest.subList(1, rest.size());
+                }
+                windows.addAll(rest);
+                next = right.next;
+                return this;
+            }
+
+            @SuppressWarnings("unchecked")
+            void finish(Gatherer.Downstream<? super List<T>> downstream) {
+                if (first < 0) {
+                    return;
+                }
+                if (first != 0) {
+                    throw new IllegalStateException("positions must start at 0 but started at " + first);
+                }
+                int last = windows.size() - 1;
+                for (int i = 0; i <= last && !downstream.isRejecting(); i++) {
+                    Object[] window = windows.get(i);
+                    if (i == last && next % size != 0) {
+                        window = Arrays.copyOf(window, (int) (next % size));
+                    }
+                    downstream.push((List<T>) Collections.unmodifiableList(Arrays.asList(window)));
+                }
+            }
+        }
+
+        return Gatherer.of(
+                State::new,
+                Gatherer.Integrator.ofGreedy((state, element, _) -> state.integrate(element)),
+                State::combine,
+                State::finish
+        );
+    }
+
+    /// A window gatherer that pushes either reused views of its [Window] or copies of it.
+    public static final class WindowGatherer<T> implements Gatherer<T, Window<T>, List<T>> {
+
+        private final int size;
+        private final boolean sliding;
+        private final boolean copying;
+
+        private WindowGatherer(int size, boolean sliding, boolean copying) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("window size must be positive");
+            }
+            this.size = size;
+            this.sliding = sliding;
+            this.copying = copying;
+        }
+
+        /// The same gatherer, but every pushed window is an unmodifiable copy
+        /// that stays valid after the stream has moved on.
+        public WindowGatherer<T> copying() {
+            return copying ? this : new WindowGatherer<>(size, sliding, true);
+        }
+
+        /// `true` if pushed windows are independent copies.
+        public boolean isCopying() {
+            return copying;
+        }
+
+        @Override
+        public Supplier<Window<T>> initializer() {
+            return () -> new Window<>(size);
+        }
+
+        @Override
+        public Integrator<Window<T>, T, List<T>> integrator() {
+            if (sliding) {
+                return Integrator.ofGreedy((window, element, downstream) -> {
+                    window.slide(element);
+                    return !window.isFull() || downstream.push(emit(window));
+                });
+            }
+            return Integrator.ofGreedy((window, element, downstream) -> {
+                window.append(element);
+                if (!window.isFull()) {
+                    return true;
+                }
+                boolean more = downstream.push(emit(window));
+                window.reset();
+                return more;
+            });
+        }
+
+        @Override
+        public BiConsumer<Window<T>, Downstream<? super List<T>>> finisher() {
+            return (window, downstream) -> {
+                // sliding: a full window was already pushed, only a stream shorter than the window is pending;
+                // fixed: whatever is left is the last, shorter window
+                boolean pending = !window.isEmpty() && !(sliding && window.isFull());
+                if (pending && !downstream.isRejecting()) {
+                    downstream.push(emit(window));
+                }
+            };
+        }
+
+        private List<T> emit(Window<T> window) {
+            return copying ? window.copy() : window;
+        }
+    }
+
+    /// The ring buffer behind a window gatherer, doubling as the read-only view pushed downstream.
+    ///
+    /// Every mutation bumps `modCount`, so an iterator kept across a push fails fast.
+    public static final class Window<T> extends AbstractList<T> implements RandomAccess {
+
+        private final Object[] elements;
+        private int head;
+        private int size;
+
+        Window(int capacity) {
+            this.elements = new Object[capacity];
+        }
+
+        void append(T element) {
+            elements[size++] = element;
+            modCount++;
+        }
+
+        void slide(T element) {
+            if (size < elements.length) {
+                elements[size++] = element;
+            } else {
+                elements[head] = element;
+                head = head + 1 == elements.length ? 0 : head + 1;
+            }
+            modCount++;
+        }
+
+        void reset() {
+            Arrays.fill(elements, 0, size, null);
+            head = 0;
+            size = 0;
+            modCount++;
+        }
+
+        boolean isFull() {
+            return size == elements.length;
+        }
+
+        List<T> copy() {
+            return Collections.unmodifiableList(Arrays.asList(toArray()));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int position = head + index;
+            return (T) elements[position < elements.length ? position : position - elements.length];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            Object[] copy = new Object[size];
+            int first = Math.min(size, elements.length - head);
+            System.arraycopy(elements, head, copy, 0, first);
+            System.arraycopy(elements, 0, copy, first, size - first);
+            return copy;
+        }
+    }
+}
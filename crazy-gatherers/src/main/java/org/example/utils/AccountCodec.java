@@ -0,0 +1,87 @@
+package org.example.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/// # AccountCodec
+///
+/// [BinaryCodec] for [Account].
+///
+/// Layout of one account:
+///
+/// | Bytes | Field |
+/// |-------|-------|
+/// | 1 | bit mask of `null` fields (bit `i` = field `i` in declaration order) |
+/// | 8 | `id` |
+/// | 4 + n | `firstName`, `lastName`, `email` (UTF-8, length-prefixed) |
+/// | 4 | `birthday`, `creationDate` (epoch day) |
+/// | 1 | `gender` (ordinal) |
+/// | 4 + 4 + n | `balance` (scale, unscaled two's-complement bytes) |
+///
+/// `null` fields take only their bit in the mask.
+public enum AccountCodec implements BinaryCodec<Account> {
+
+    INSTANCE;
+
+    private static final Gender[] GENDERS = Gender.values();
+
+    @Override
+    public void write(Account account, ByteBuffer buffer) {
+        int nulls = (account.id() == null ? 1 : 0)
+                | (account.firstName() == null ? 1 << 1 : 0)
+                | (account.lastName() == null ? 1 << 2 : 0)
+                | (account.email() == null ? 1 << 3 : 0)
+                | (account.birthday() == null ? 1 << 4 : 0)
+                | (account.gender() == null ? 1 << 5 : 0)
+                | (account.creationDate() == null ? 1 << 6 : 0)
+                | (account.balance() == null ? 1 << 7 : 0);
+        buffer.put((byte) nulls);
+        if (account.id() != null) {
+            buffer.putLong(account.id());
+        }
+        if (account.firstName() != null) {
+            BinaryCodec.putString(account.firstName(), buffer);
+        }
+        if (account.lastName() != null) {
+            BinaryCodec.putString(account.lastName(), buffer);
+        }
+        if (account.email() != null) {
+            BinaryCodec.putString(account.email(), buffer);
+        }
+        if (account.birthday() != null) {
+            buffer.putInt((int) account.birthday().toEpochDay());
+        }
+        if (account.gender() != null) {
+            buffer.put((byte) account.gender().ordinal());
+        }
+        if (account.creationDate() != null) {
+            buffer.putInt((int) account.creationDate().toEpochDay());
+        }
+        if (account.balance() != null) {
+            byte[] unscaled = account.balance().unscaledValue().toByteArray();
+            buffer.putInt(account.balance().scale()).putInt(unscaled.length).put(unscaled);
+        }
+    }
+
+    @Override
+    public Account read(ByteBuffer buffer) {
+        int nulls = buffer.get();
+        Long id = (nulls & 1) == 0 ? buffer.getLong() : null;
+        String firstName = (nulls & 1 << 1) == 0 ? BinaryCodec.getString(buffer) : null;
+        String lastName = (nulls & 1 << 2) == 0 ? BinaryCodec.getString(buffer) : null;
+        String email = (nulls & 1 << 3) == 0 ? BinaryCodec.getString(buffer) : null;
+        LocalDate birthday = (nulls & 1 << 4) == 0 ? LocalDate.ofEpochDay(buffer.getInt()) : null;
+        Gender gender = (nulls & 1 << 5) == 0 ? GENDERS[buffer.get()] : null;
+        LocalDate creationDate = (nulls & 1 << 6) == 0 ? LocalDate.ofEpochDay(buffer.getInt()) : null;
+        BigDecimal balance = null;
+        if ((nulls & 1 << 7) == 0) {
+            int scale = buffer.getInt();
+            byte[] unscaled = new byte[buffer.getInt()];
+            buffer.get(unscaled);
+            balance = new BigDecimal(new BigInteger(unscaled), scale);
+        }
+        return new Account(id, firstName, lastName, email, birthday, gender, creationDate, balance);
+    }
+}
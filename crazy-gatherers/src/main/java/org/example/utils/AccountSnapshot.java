@@ -0,0 +1,292 @@
+package org.example.utils;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.example.utils.OffHeapAccountStore.*;
+
+/// # AccountSnapshot
+///
+/// A binary file of accounts that is opened by memory-mapping it, with no parsing and
+/// no per-account allocation: the rows of the file are the 48-byte [OffHeapAccountStore#ROW]s
+/// and the file is mapped straight into a read-only [OffHeapAccountStore].
+///
+/// ```
+/// | header (64 bytes) | rows (48 bytes each) | email heap | name dictionary |
+/// ```
+///
+/// Emails are stored in the heap as UTF-8 and never straddle a 16 MiB boundary, so a
+/// row's email position is both a file offset (relative to the heap) and the
+/// `chunk << 24 | offset` position the store reads. See [SnapshotFormat] for the header.
+///
+/// ```java
+/// AccountSnapshot.write(path, DataUtils.randomAccounts(10_000_000));
+///
+/// try (OffHeapAccountStore accounts = AccountSnapshot.open(path)) {
+///     long women = accounts.parallelStream()
+///             .filter(account -> account.gender() == Gender.FEMALE)
+///             .count();
+/// }
+/// ```
+///
+/// Opening a snapshot costs one `mmap` plus reading the name dictionary; rows are paged
+/// in by the operating system as they are read, and stay in the page cache between runs.
+public final class AccountSnapshot {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private AccountSnapshot() {
+    }
+
+    /// Writes `accounts` to `file`, replacing it, and returns the number of accounts written.
+    /// If `accounts` or a write fails, `file` is left as it was.
+    public static long write(Path file, Iterable<Account> accounts) throws IOException {
+        try (Writer writer = writer(file)) {
+            try {
+                for (Account account : accounts) {
+                    writer.add(account);
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                writer.abort();
+                throw e;
+            }
+            return writer.size();
+        }
+    }
+
+    /// A writer that streams accounts to a temporary file next to `file` and replaces
+    /// `file` with it once the writer is closed.
+    public static Writer writer(Path file) throws IOException {
+        return new Writer(file);
+    }
+
+    /// Maps `file` into a read-only store; closing the store unmaps the file.
+    ///
+    /// @throws IOException
+    ///   if the file cannot be read or is not an account snapshot
+    public static OffHeapAccountStore open(Path file) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            SnapshotFormat.Header header = SnapshotFormat.Header.read(mapped, SnapshotFormat.ACCOUNTS, ROW.byteSize());
+
+            long chunkBytes = ROW.byteSize() * ROWS_PER_CHUNK;
+            long rowBytes = header.rowCount() * ROW.byteSize();
+            MemorySegment[] rowChunks = new MemorySegment[Math.toIntExact((header.rowCount() + ROWS_PER_CHUNK - 1) >>> ROW_CHUNK_BITS)];
+            for (int chunk = 0; chunk < rowChunks.length; chunk++) {
+                long start = chunk * chunkBytes;
+                rowChunks[chunk] = mapped.asSlice(header.rowsOffset() + start, Math.min(chunkBytes, rowBytes - start));
+            }
+            // one more (possibly empty) chunk than full ones, for empty emails at the very end
+            MemorySegment[] heapChunks = new MemorySegment[Math.toIntExact((header.heapLength() >>> HEAP_CHUNK_BITS) + 1)];
+            for (int chunk = 0; chunk < heapChunks.length; chunk++) {
+                long start = chunk * HEAP_CHUNK_SIZE;
+                heapChunks[chunk] = mapped.asSlice(header.heapOffset() + start, Math.min(HEAP_CHUNK_SIZE, header.heapLength() - start));
+            }
+            StringDictionary names = SnapshotFormat.readDictionary(
+                    mapped.asSlice(header.dictionaryOffset(), header.dictionaryLength()));
+            return OffHeapAccountStore.wrap(arena, names, rowChunks, heapChunks, header.rowCount());
+        } catch (IOException | RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /// Streams accounts into a snapshot file.
+    ///
+    /// Rows are written to the file as they are added; emails are buffered in a temporary
+    /// file next to it and copied after the rows on [#close()], followed by the name
+    /// dictionary and finally the header, so a file without a valid header is never
+    /// mistaken for a snapshot.
+    ///
+    /// The file itself is a temporary one too, and only replaces the target once it is
+    /// complete; after a failed [#add(Account)] or an [#abort()], closing deletes it
+    /// instead. Not thread-safe.
+    public static final class Writer implements AutoCloseable {
+
+        private final Path target;
+        private final Path temporary;
+        private final FileChannel file;
+        private final FileChannel heap;
+        private final ByteBuffer rows = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+        private final ByteBuffer strings = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final StringDictionary names = new StringDictionary();
+        private long rowCount;
+        private long rowsWritten;
+        private long heapLength;
+        private long heapWritten;
+        private boolean failed;
+        private boolean closed;
+
+        private Writer(Path path) throws IOException {
+            Path directory = path.toAbsolutePath().getParent();
+            Path heapFile = Files.createTempFile(directory, "snapshot-", ".heap");
+            try {
+                this.heap = FileChannel.open(heapFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException | RuntimeException e) {
+                SnapshotFormat.discard(heapFile, e);
+                throw e;
+            }
+            this.target = path;
+            try {
+                this.temporary = SnapshotFormat.createTemporary(path);
+            } catch (IOException | RuntimeException e) {
+                heap.close();
+                throw e;
+            }
+            try {
+                this.file = FileChannel.open(temporary, StandardOpenOption.WRITE);
+            } catch (IOException | RuntimeException e) {
+                heap.close();
+                SnapshotFormat.discard(temporary, e);
+                throw e;
+            }
+        }
+
+        /// Appends an account.
+        ///
+        /// @throws NullPointerException
+        ///   if the account has a `null` field
+        /// @throws ArithmeticException
+        ///   if the balance has fractions of a cent or does not fit in a `long` of cents
+        public Writer add(Account account) throws IOException {
+            if (closed) {
+                throw new IllegalStateException("writer is closed");
+            }
+            try {
+                long cents = AccountTable.cents(account.balance());
+                byte[] email = account.email().getBytes(StandardCharsets.UTF_8);
+                int birthday = Math.toIntExact(account.birthday().toEpochDay());
+                int creationDate = Math.toIntExact(account.creationDate().toEpochDay());
+                byte gender = (byte) account.gender().ordinal();
+                long id = account.id();
+                int firstName = names.encode(account.firstName());
+                int lastName = names.encode(account.lastName());
+
+                if (rows.remaining() < ROW.byteSize()) {
+                    flushRows();
+                }
+                int offset = rows.position();
+                rows.putLong(offset + (int) ID, id)
+                        .putLong(offset + (int) BALANCE, cents)
+                        .putLong(offset + (int) EMAIL_POSITION, appendString(email))
+                        .putInt(offset + (int) EMAIL_LENGTH, email.length)
+                        .putInt(offset + (int) FIRST_NAME, firstName)
+                        .putInt(offset + (int) LAST_NAME, lastName)
+                        .putInt(offset + (int) BIRTHDAY, birthday)
+                        .putInt(offset + (int) CREATION_DATE, creationDate)
+                        .putInt(offset + (int) GENDER, 0)
+                        .put(offset + (int) GENDER, gender)
+                        .position(offset + (int) ROW.byteSize());
+                rowCount++;
+                return this;
+            } catch (IOException | RuntimeException | Error e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        /// The number of accounts added so far.
+        public long size() {
+            return rowCount;
+        }
+
+        /// Gives up the file: [#close()] deletes it and leaves the target as it was.
+        public void abort() {
+            failed = true;
+        }
+
+        /// Completes the file and moves it over the target, or deletes it after a failed
+        /// [#add(Account)] or an [#abort()]; releases the temporary email heap either way.
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                try (file; heap) {
+                    if (!failed) {
+                        complete();
+                    }
+                }
+                if (failed) {
+                    Files.delete(temporary);
+                } else {
+                    SnapshotFormat.publish(temporary, target);
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                SnapshotFormat.discard(temporary, e);
+                throw e;
+            }
+        }
+
+        // writes the rest of the file, the header last, and forces it to disk
+        private void complete() throws IOException {
+            flushRows();
+            flushStrings();
+            long heapOffset = SnapshotFormat.HEADER_SIZE + rowsWritten;
+            for (long copied = 0; copied < heapLength; ) {
+                copied += heap.transferTo(copied, heapLength - copied, file.position(heapOffset + copied));
+            }
+            long dictionaryOffset = heapOffset + heapLength;
+            long dictionaryLength = SnapshotFormat.writeDictionary(file, names, dictionaryOffset);
+            new SnapshotFormat.Header(SnapshotFormat.ACCOUNTS, (int) ROW.byteSize(), rowCount,
+                    SnapshotFormat.HEADER_SIZE, heapOffset, heapLength, dictionaryOffset, dictionaryLength)
+                    .write(file);
+            file.force(false);
+        }
+
+        private long appendString(byte[] bytes) throws IOException {
+            if (bytes.length > HEAP_CHUNK_SIZE) {
+                throw new IllegalArgumentException("string longer than 16 MiB");
+            }
+            long used = heapLength & (HEAP_CHUNK_SIZE - 1);
+            if (used + bytes.length > HEAP_CHUNK_SIZE) {
+                pad(HEAP_CHUNK_SIZE - used);
+            }
+            long position = heapLength;
+            if (strings.remaining() < bytes.length) {
+                flushStrings();
+            }
+            if (strings.remaining() < bytes.length) {
+                heapWritten += SnapshotFormat.writeFully(heap, ByteBuffer.wrap(bytes), heapWritten);
+            } else {
+                strings.put(bytes);
+            }
+            heapLength += bytes.length;
+            return position;
+        }
+
+        private void pad(long bytes) throws IOException {
+            for (long left = bytes; left > 0; ) {
+                if (!strings.hasRemaining()) {
+                    flushStrings();
+                }
+                int zeros = (int) Math.min(left, strings.remaining());
+                strings.put(new byte[zeros]);
+                left -= zeros;
+            }
+            heapLength += bytes;
+        }
+
+        private void flushRows() throws IOException {
+            rowsWritten += SnapshotFormat.writeFully(file, rows.flip(), SnapshotFormat.HEADER_SIZE + rowsWritten);
+            rows.clear();
+        }
+
+        private void flushStrings() throws IOException {
+            heapWritten += SnapshotFormat.writeFully(heap, strings.flip(), heapWritten);
+            strings.clear();
+        }
+    }
+}
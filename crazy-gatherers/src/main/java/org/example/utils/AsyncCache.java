@@ -0,0 +1,230 @@
+package org.example.utils;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/// # AsyncCache
+///
+/// A bounded, memoizing cache in front of a slow (remote) lookup, such as
+/// `CrazyGatherers.callToAnotherMicroserviceToGetOrder`.
+///
+/// - every key maps to a [CompletableFuture] of its value, so concurrent requests for
+///   a key that is being loaded wait for that one load instead of starting their own
+///   (single-flight coalescing)
+/// - at most `maximumSize` keys are kept; the least recently used loaded one is evicted
+///   first. Keys still loading are never evicted (that would let a second load of the
+///   same key start), so the cache may go over `maximumSize` by the loads in flight
+/// - every load runs on its own virtual thread, so a requesting thread that is
+///   interrupted stops waiting without failing the other requests for the same key
+/// - a value expires `timeToLive` after it was loaded
+/// - failed loads are not cached: the requests waiting for them fail, the next one
+///   loads again
+///
+/// [#get(Object)] blocks, which is cheap on a virtual thread, and plugs into
+/// [java.util.stream.Gatherers#mapConcurrent(int, Function)]:
+///
+/// ```java
+/// AsyncCache<Long, OrderDetails> orders = new AsyncCache<>(10_000, Duration.ofMinutes(1), orderService::findOrder);
+/// List<OrderDetails> details = accountIds.stream()
+///         .gather(Gatherers.mapConcurrent(100, orders::get))
+///         .toList();
+/// IO.println(orders.stats());
+/// ```
+///
+/// @param <K> the type of keys
+/// @param <V> the type of values
+public final class AsyncCache<K, V> {
+
+    /// Request counts since the cache was created.
+    ///
+    /// @param hits       requests answered with a loaded value
+    /// @param misses     requests that started a load
+    /// @param coalesced  requests that waited for a load started by another request
+    public record Stats(long hits, long misses, long coalesced) {
+
+        public long requests() {
+            return hits + misses + coalesced;
+        }
+
+        /// The share of requests that did not start a load, `1` when there were no requests.
+        public double hitRate() {
+            long requests = requests();
+            return requests == 0 ? 1 : (double) (hits + coalesced) / requests;
+        }
+    }
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> value = new CompletableFuture<>();
+        // written before value completes
+        volatile long expiresAt;
+    }
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final Function<? super K, ? extends V> loader;
+    private final LongSupplier ticker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // access order: the eldest entry is the least recently used; guarded by lock
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /// @param maximumSize
+    ///   the number of keys to keep, positive
+    /// @param timeToLive
+    ///   how long a loaded value is served, positive
+    /// @param loader
+    ///   loads the value of a key; called once per miss, on a new virtual thread
+    public AsyncCache(int maximumSize, Duration timeToLive, Function<? super K, ? extends V> loader) {
+        this(maximumSize, timeToLive, loader, System::nanoTime);
+    }
+
+    AsyncCache(int maximumSize, Duration timeToLive, Function<? super K, ? extends V> loader, LongSupplier ticker) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximum size must be positive");
+        }
+        if (!timeToLive.isPositive()) {
+            throw new IllegalArgumentException("time to live must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.loader = Objects.requireNonNull(loader);
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /// Returns the value of `key`, waiting for its load on a miss or for the load in
+    /// progress.
+    ///
+    /// A failed load is rethrown as described in [Futures#await(java.util.concurrent.Future)].
+    /// Interrupting the calling thread only stops this request from waiting.
+    public V get(K key) {
+        return Futures.await(entry(key).value);
+    }
+
+    /// Returns the value of `key` as a future, loading it on a new virtual thread on a miss.
+    public CompletableFuture<V> getAsync(K key) {
+        return entry(key).value.copy();
+    }
+
+    /// Drops `key`; a load in progress still completes for the requests waiting for it.
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// The number of keys cached or being loaded, including expired ones not yet requested again.
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), coalesced.sum());
+    }
+
+    // the live entry of key, starting its load on a miss
+    private Entry<V> entry(K key) {
+        Entry<V> entry = lookup(key);
+        if (entry != null) {
+            return entry;
+        }
+        Entry<V> loading = new Entry<>();
+        if (!install(key, loading)) {
+            return entry(key);
+        }
+        Thread.ofVirtual().start(() -> load(key, loading));
+        return loading;
+    }
+
+    // the live entry of key, counted as a hit or coalesced; null on a miss
+    private Entry<V> lookup(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || isExpired(entry)) {
+                return null;
+            }
+            (entry.value.isDone() ? hits : coalesced).increment();
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // puts a new entry for key unless another request has just done so; counted as a miss
+    private boolean install(K key, Entry<V> entry) {
+        lock.lock();
+        try {
+            Entry<V> current = entries.get(key);
+            if (current != null && !isExpired(current)) {
+                return false;
+            }
+            entries.put(key, entry);
+            misses.increment();
+            evictOverflow();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // guarded by lock: drops least recently used loaded entries, never one still loading
+    private void evictOverflow() {
+        Iterator<Entry<V>> eldestFirst = entries.values().iterator();
+        while (entries.size() > maximumSize && eldestFirst.hasNext()) {
+            if (eldestFirst.next().value.isDone()) {
+                eldestFirst.remove();
+            }
+        }
+    }
+
+    private void load(K key, Entry<V> entry) {
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (Throwable e) {
+            lock.lock();
+            try {
+                entries.remove(key, entry);
+            } finally {
+                lock.unlock();
+            }
+            entry.value.completeExceptionally(e);
+            return;
+        }
+        entry.expiresAt = ticker.getAsLong() + timeToLiveNanos;
+        entry.value.complete(value);
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return entry.value.isDone() && ticker.getAsLong() - entry.expiresAt >= 0;
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/// # BinaryCodec
+///
+/// A compact binary serializer for one element type, used by gatherers that spill
+/// elements to disk.
+///
+/// A codec only writes and reads the bytes of a single value. Framing (record
+/// lengths), buffering and file I/O are done by the caller, which also guarantees that:
+///
+/// - [#write(Object, ByteBuffer)] gets a buffer with some room; when the value does not fit,
+///   the codec may throw [java.nio.BufferOverflowException] and will be called again
+///   with a larger buffer
+/// - [#read(ByteBuffer)] gets a buffer holding exactly the bytes written for one value
+///
+/// ```java
+/// BinaryCodec<Account> codec = AccountCodec.INSTANCE;
+/// ```
+public interface BinaryCodec<T> {
+
+    /// Writes `value` at the buffer's position.
+    void write(T value, ByteBuffer buffer);
+
+    /// Reads a value written by [#write(Object, ByteBuffer)].
+    T read(ByteBuffer buffer);
+
+    /// UTF-8 strings; `null` is not supported.
+    static BinaryCodec<String> strings() {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(String value, ByteBuffer buffer) {
+                putString(value, buffer);
+            }
+
+            @Override
+            public String read(ByteBuffer buffer) {
+                return getString(buffer);
+            }
+        };
+    }
+
+    /// 4-byte big-endian integers; `null` is not supported.
+    static BinaryCodec<Integer> integers() {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(Integer value, ByteBuffer buffer) {
+                buffer.putInt(value);
+            }
+
+            @Override
+            public Integer read(ByteBuffer buffer) {
+                return buffer.getInt();
+            }
+        };
+    }
+
+    /// 8-byte big-endian longs; `null` is not supported.
+    static BinaryCodec<Long> longs() {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(Long value, ByteBuffer buffer) {
+                buffer.putLong(value);
+            }
+
+            @Override
+            public Long read(ByteBuffer buffer) {
+                return buffer.getLong();
+            }
+        };
+    }
+
+    /// Writes a string as an `int` byte length followed by its UTF-8 bytes.
+    static void putString(String value, ByteBuffer buffer) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    /// Reads a string written by [#putString(String, ByteBuffer)].
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.utils;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/// Helpers for waiting on [Future]s from code that cannot throw checked exceptions,
+/// such as gatherer integrators and stream mappers.
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /// Waits for `future` and returns its value.
+    ///
+    /// A failed task is rethrown as it failed: unchecked exceptions and errors as they
+    /// are, checked exceptions wrapped in a [RuntimeException]. If the waiting thread
+    /// is interrupted, its interrupt flag is restored and a [RuntimeException] is thrown;
+    /// the task itself is left running.
+    public static <V> V await(Future<V> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case RuntimeException runtime -> throw runtime;
+                case Error error -> throw error;
+                case Throwable other -> throw new RuntimeException(other);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for a concurrent task", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// # LatencyDistribution
+///
+/// The latency of each request to a simulated service such as [OrderService].
+///
+/// ```java
+/// // 1 request in 50 takes a second, the others 10 ms
+/// OrderService service = new OrderService(LatencyDistribution.longTail(Duration.ofMillis(10), Duration.ofSeconds(1), 0.02));
+/// ```
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /// The latency of the next request; called once per request, from any thread.
+    Duration next();
+
+    /// Every request takes `latency`.
+    static LatencyDistribution fixed(Duration latency) {
+        requireNonNegative(latency);
+        return () -> latency;
+    }
+
+    /// Latencies spread evenly between `min` and `max`.
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        requireNonNegative(min);
+        if (max.compareTo(min) < 0) {
+            throw new IllegalArgumentException("max must not be less than min");
+        }
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        return () -> Duration.ofNanos(ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1));
+    }
+
+    /// Requests take `typical`, except a `tailProbability` share of them, which take `tail`.
+    static LatencyDistribution longTail(Duration typical, Duration tail, double tailProbability) {
+        requireNonNegative(typical);
+        requireNonNegative(tail);
+        if (!(tailProbability >= 0 && tailProbability <= 1)) {
+            throw new IllegalArgumentException("tail probability must be in [0, 1]");
+        }
+        return () -> ThreadLocalRandom.current().nextDouble() < tailProbability ? tail : typical;
+    }
+
+    /// Cycles through `latencies` in request order, for deterministic tests.
+    static LatencyDistribution sequence(List<Duration> latencies) {
+        if (latencies.isEmpty()) {
+            throw new IllegalArgumentException("latencies must not be empty");
+        }
+        latencies.forEach(LatencyDistribution::requireNonNegative);
+        List<Duration> cycle = List.copyOf(latencies);
+        AtomicLong requests = new AtomicLong();
+        return () -> cycle.get((int) (requests.getAndIncrement() % cycle.size()));
+    }
+
+    private static void requireNonNegative(Duration latency) {
+        if (latency.isNegative()) {
+            throw new IllegalArgumentException("latency must not be negative");
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package org.example.utils;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+
+/// # OffHeapAccountStore
+///
+/// Accounts stored outside the Java heap, in [MemorySegment]s of a shared [Arena], so
+/// that 100M+ accounts add nothing for the garbage collector to trace or copy.
+///
+/// Every account is a fixed-width 48-byte row ([#ROW]):
+///
+/// | Offset | Bytes | Field |
+/// |--------|-------|-------|
+/// | 0 | 8 | `id` |
+/// | 8 | 8 | `balance` in cents |
+/// | 16 | 8 | `email` position in the string heap |
+/// | 24 | 4 | `email` length in UTF-8 bytes |
+/// | 28 | 4 | `firstName` code |
+/// | 32 | 4 | `lastName` code |
+/// | 36 | 4 | `birthday` epoch day |
+/// | 40 | 4 | `creationDate` epoch day |
+/// | 44 | 1 | `gender` ordinal (+ 3 bytes of padding) |
+///
+/// - rows are allocated in chunks of 2^20 rows (48 MiB), so the store grows without copying
+/// - emails live in a separate off-heap string heap, in 16 MiB chunks
+/// - first and last names are codes into a [StringDictionary]; it is the only part kept
+///   on the heap, and it only grows with the number of distinct names
+///
+/// Rows are read through a flyweight [Cursor], so a pipeline can read the fields it
+/// needs without materializing [Account] objects:
+///
+/// ```java
+/// try (OffHeapAccountStore store = OffHeapAccountStore.of(DataUtils.randomAccounts(1_000_000))) {
+///     long women = store.parallelStream()
+///             .filter(account -> account.gender() == Gender.FEMALE)
+///             .count();
+/// }
+/// ```
+///
+/// A store is appended to by one thread, then read by any number of threads.
+/// Closing it frees the memory; reading a closed store throws [IllegalStateException].
+/// Balances follow [AccountTable]: cents in a `long`, `null` fields are not supported.
+public final class OffHeapAccountStore implements AutoCloseable {
+
+    /// The layout of one row.
+    public static final StructLayout ROW = MemoryLayout.structLayout(
+            ValueLayout.JAVA_LONG.withName("id"),
+            ValueLayout.JAVA_LONG.withName("balanceCents"),
+            ValueLayout.JAVA_LONG.withName("emailPosition"),
+            ValueLayout.JAVA_INT.withName("emailLength"),
+            ValueLayout.JAVA_INT.withName("firstName"),
+            ValueLayout.JAVA_INT.withName("lastName"),
+            ValueLayout.JAVA_INT.withName("birthday"),
+            ValueLayout.JAVA_INT.withName("creationDate"),
+            ValueLayout.JAVA_BYTE.withName("gender"),
+            MemoryLayout.paddingLayout(3)
+    ).withName("account");
+
+    static final long ID = ROW.byteOffset(groupElement("id"));
+    static final long BALANCE = ROW.byteOffset(groupElement("balanceCents"));
+    static final long EMAIL_POSITION = ROW.byteOffset(groupElement("emailPosition"));
+    static final long EMAIL_LENGTH = ROW.byteOffset(groupElement("emailLength"));
+    static final long FIRST_NAME = ROW.byteOffset(groupElement("firstName"));
+    static final long LAST_NAME = ROW.byteOffset(groupElement("lastName"));
+    static final long BIRTHDAY = ROW.byteOffset(groupElement("birthday"));
+    static final long CREATION_DATE = ROW.byteOffset(groupElement("creationDate"));
+    static final long GENDER = ROW.byteOffset(groupElement("gender"));
+
+    static final int ROW_CHUNK_BITS = 20;
+    static final int ROWS_PER_CHUNK = 1 << ROW_CHUNK_BITS;
+    static final int HEAP_CHUNK_BITS = 24;
+    static final long HEAP_CHUNK_SIZE = 1L << HEAP_CHUNK_BITS;
+
+    private static final Gender[] GENDERS = Gender.values();
+
+    private final Arena arena;
+    private final StringDictionary names;
+    private MemorySegment[] rowChunks;
+    private MemorySegment[] heapChunks;
+    private int heapChunkCount;
+    private long heapChunkPosition;
+    private long size;
+    private boolean readOnly;
+
+    private OffHeapAccountStore(Arena arena, StringDictionary names, MemorySegment[] rowChunks,
+                                MemorySegment[] heapChunks, int heapChunkCount, long size) {
+        this.arena = arena;
+        this.names = names;
+        this.rowChunks = rowChunks;
+        this.heapChunks = heapChunks;
+        this.heapChunkCount = heapChunkCount;
+        this.size = size;
+    }
+
+    /// An empty store with its own shared arena.
+    public static OffHeapAccountStore create() {
+        return new OffHeapAccountStore(Arena.ofShared(), new StringDictionary(), new MemorySegment[0], new MemorySegment[0], 0, 0);
+    }
+
+    /// A store of `accounts`, in iteration order.
+    public static OffHeapAccountStore of(Iterable<Account> accounts) {
+        OffHeapAccountStore store = create();
+        try {
+            accounts.forEach(store::add);
+            return store;
+        } catch (RuntimeException | Error e) {
+            store.close();
+            throw e;
+        }
+    }
+
+    /// A store over existing segments (a mapped snapshot), read-only.
+    static OffHeapAccountStore wrap(Arena arena, StringDictionary names, MemorySegment[] rowChunks,
+                                    MemorySegment[] heapChunks, long size) {
+        OffHeapAccountStore store = new OffHeapAccountStore(arena, names, rowChunks, heapChunks, heapChunks.length, size);
+        store.heapChunkPosition = heapChunks.length == 0 ? 0 : heapChunks[heapChunks.length - 1].byteSize();
+        store.readOnly = true;
+        return store;
+    }
+
+    /// Appends an account.
+    ///
+    /// @throws NullPointerException
+    ///   if the account has a `null` field
+    /// @throws ArithmeticException
+    ///   if the balance has fractions of a cent or does not fit in a `long` of cents
+    /// @throws UnsupportedOperationException
+    ///   if the store is a read-only snapshot
+    public OffHeapAccountStore add(Account account) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("read-only account store");
+        }
+        long cents = AccountTable.cents(account.balance());
+        int firstName = names.encode(account.firstName());
+        int lastName = names.encode(account.lastName());
+        byte[] email = account.email().getBytes(StandardCharsets.UTF_8);
+        int birthday = Math.toIntExact(account.birthday().toEpochDay());
+        int creationDate = Math.toIntExact(account.creationDate().toEpochDay());
+        byte gender = (byte) account.gender().ordinal();
+        long id = account.id();
+
+        int chunk = (int) (size >>> ROW_CHUNK_BITS);
+        if (chunk == rowChunks.length) {
+            rowChunks = Arrays.copyOf(rowChunks, chunk + 1);
+            rowChunks[chunk] = arena.allocate(ROW.byteSize() * ROWS_PER_CHUNK, ROW.byteAlignment());
+        }
+        MemorySegment rows = rowChunks[chunk];
+        long offset = (size & (ROWS_PER_CHUNK - 1)) * ROW.byteSize();
+        rows.set(ValueLayout.JAVA_LONG, offset + ID, id);
+        rows.set(ValueLayout.JAVA_LONG, offset + BALANCE, cents);
+        rows.set(ValueLayout.JAVA_LONG, offset + EMAIL_POSITION, appendString(email));
+        rows.set(ValueLayout.JAVA_INT, offset + EMAIL_LENGTH, email.length);
+        rows.set(ValueLayout.JAVA_INT, offset + FIRST_NAME, firstName);
+        rows.set(ValueLayout.JAVA_INT, offset + LAST_NAME, lastName);
+        rows.set(ValueLayout.JAVA_INT, offset + BIRTHDAY, birthday);
+        rows.set(ValueLayout.JAVA_INT, offset + CREATION_DATE, creationDate);
+        rows.set(ValueLayout.JAVA_BYTE, offset + GENDER, gender);
+        size++;
+        return this;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /// The dictionary of first and last names.
+    public StringDictionary names() {
+        return names;
+    }
+
+    /// The account in `row`, as a new [Account].
+    public Account account(long row) {
+        return cursor().moveTo(row).toAccount();
+    }
+
+    /// A new cursor, before the first row; see [Cursor#moveTo(long)].
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /// The rows as a flyweight cursor that moves from row to row.
+    ///
+    /// The spliterator is `SIZED` and `SUBSIZED` and splits its index range in half,
+    /// so parallel streams divide the work evenly. Each split has one [Cursor] that it
+    /// moves for every row: the same object is passed for every element, so a cursor
+    /// must not be kept past the action that received it (materialize it with
+    /// [Cursor#toAccount()] before buffering it, e.g. in `sorted` or `windowFixed`).
+    public Spliterator<Cursor> spliterator() {
+        return new RowSpliterator(0, size);
+    }
+
+    public Stream<Cursor> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<Cursor> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /// All accounts, materialized one row at a time; splits like [#spliterator()].
+    public Spliterator<Account> accountSpliterator() {
+        return new AccountSpliterator(new RowSpliterator(0, size));
+    }
+
+    /// All accounts, materialized one row at a time.
+    public Stream<Account> accounts() {
+        return StreamSupport.stream(accountSpliterator(), false);
+    }
+
+    /// The off-heap bytes allocated for rows and strings.
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (MemorySegment chunk : rowChunks) {
+            bytes += chunk.byteSize();
+        }
+        for (int chunk = 0; chunk < heapChunkCount; chunk++) {
+            bytes += heapChunks[chunk].byteSize();
+        }
+        return bytes;
+    }
+
+    /// Frees the memory of the store; cursors and streams over it can no longer be used.
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /// The rows of this store, chunk by chunk, each `ROWS_PER_CHUNK` rows long except the last.
+    MemorySegment[] rowChunks() {
+        return rowChunks;
+    }
+
+    /// The string heap, chunk by chunk; positions are `chunk << HEAP_CHUNK_BITS | offset`.
+    MemorySegment[] heapChunks() {
+        return Arrays.copyOf(heapChunks, heapChunkCount);
+    }
+
+    /// The bytes used in each heap chunk.
+    long heapChunkLength(int chunk) {
+        return chunk == heapChunkCount - 1 ? heapChunkPosition : heapChunks[chunk].byteSize();
+    }
+
+    private long appendString(byte[] bytes) {
+        if (bytes.length > HEAP_CHUNK_SIZE) {
+            throw new IllegalArgumentException("string longer than 16 MiB");
+        }
+        if (heapChunkCount == 0 || HEAP_CHUNK_SIZE - heapChunkPosition < bytes.length) {
+            if (heapChunkCount == heapChunks.length) {
+                heapChunks = Arrays.copyOf(heapChunks, Math.max(4, heapChunkCount * 2));
+            }
+            heapChunks[heapChunkCount++] = arena.allocate(HEAP_CHUNK_SIZE);
+            heapChunkPosition = 0;
+        }
+        long position = (long) (heapChunkCount - 1) << HEAP_CHUNK_BITS | heapChunkPosition;
+        MemorySegment.copy(bytes, 0, heapChunks[heapChunkCount - 1], ValueLayout.JAVA_BYTE, heapChunkPosition, bytes.length);
+        heapChunkPosition += bytes.length;
+        return position;
+    }
+
+    /// A movable view of one row; every accessor reads the row's bytes directly.
+    public final class Cursor {
+
+        private MemorySegment rows;
+        private long offset;
+        private long row = -1;
+
+        private Cursor() {
+        }
+
+        /// Moves to `row` and returns this cursor.
+        public Cursor moveTo(long row) {
+            Objects.checkIndex(row, size);
+            this.rows = rowChunks[(int) (row >>> ROW_CHUNK_BITS)];
+            this.offset = (row & (ROWS_PER_CHUNK - 1)) * ROW.byteSize();
+            this.row = row;
+            return this;
+        }
+
+        public long row() {
+            return row;
+        }
+
+        public long id() {
+            return rows.get(ValueLayout.JAVA_LONG, offset + ID);
+        }
+
+        public int firstNameCode() {
+            return rows.get(ValueLayout.JAVA_INT, offset + FIRST_NAME);
+        }
+
+        public String firstName() {
+            return names.decode(firstNameCode());
+        }
+
+        public int lastNameCode() {
+            return rows.get(ValueLayout.JAVA_INT, offset + LAST_NAME);
+        }
+
+        public String lastName() {
+            return names.decode(lastNameCode());
+        }
+
+        public String email() {
+            long position = rows.get(ValueLayout.JAVA_LONG, offset + EMAIL_POSITION);
+            byte[] bytes = new byte[rows.get(ValueLayout.JAVA_INT, offset + EMAIL_LENGTH)];
+            MemorySegment.copy(heapChunks[(int) (position >>> HEAP_CHUNK_BITS)], ValueLayout.JAVA_BYTE,
+                    position & (HEAP_CHUNK_SIZE - 1), bytes, 0, bytes.length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public int birthdayEpochDay() {
+            return rows.get(ValueLayout.JAVA_INT, offset + BIRTHDAY);
+        }
+
+        public LocalDate birthday() {
+            return LocalDate.ofEpochDay(birthdayEpochDay());
+        }
+
+        public LocalDate creationDate() {
+            return LocalDate.ofEpochDay(rows.get(ValueLayout.JAVA_INT, offset + CREATION_DATE));
+        }
+
+        public Gender gender() {
+            return GENDERS[rows.get(ValueLayout.JAVA_BYTE, offset + GENDER)];
+        }
+
+        public long balanceCents() {
+            return rows.get(ValueLayout.JAVA_LONG, offset + BALANCE);
+        }
+
+        /// The current row as a new [Account].
+        public Account toAccount() {
+            return new Account(id(), firstName(), lastName(), email(), birthday(), gender(), creationDate(),
+                    AccountTable.fromCents(balanceCents()));
+        }
+
+        @Override
+        public String toString() {
+            return "Cursor[row=" + row + "]";
+        }
+    }
+
+    private record AccountSpliterator(Spliterator<Cursor> rows) implements Spliterator<Account> {
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Account> action) {
+            return rows.tryAdvance(cursor -> action.accept(cursor.toAccount()));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Account> action) {
+            rows.forEachRemaining(cursor -> action.accept(cursor.toAccount()));
+        }
+
+        @Override
+        public Spliterator<Account> trySplit() {
+            Spliterator<Cursor> prefix = rows.trySplit();
+            return prefix == null ? null : new AccountSpliterator(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return rows.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return rows.characteristics();
+        }
+    }
+
+    private final class RowSpliterator implements Spliterator<Cursor> {
+
+        private final Cursor cursor = new Cursor();
+        private long next;
+        private final long end;
+
+        RowSpliterator(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Cursor> action) {
+            if (next >= end) {
+                return false;
+            }
+            action.accept(cursor.moveTo(next++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Cursor> action) {
+            for (; next < end; next++) {
+                action.accept(cursor.moveTo(next));
+            }
+        }
+
+        @Override
+        public Spliterator<Cursor> trySplit() {
+            long middle = (next + end) >>> 1;
+            if (middle <= next) {
+                return null;
+            }
+            RowSpliterator prefix = new RowSpliterator(next, middle);
+            next = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
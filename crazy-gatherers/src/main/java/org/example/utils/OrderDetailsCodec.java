@@ -0,0 +1,48 @@
+package org.example.utils;
+
+import java.nio.ByteBuffer;
+
+/// # OrderDetailsCodec
+///
+/// [BinaryCodec] for [OrderDetails].
+///
+/// Layout of one order:
+///
+/// | Bytes | Field |
+/// |-------|-------|
+/// | 1 | bit mask of `null` fields (bit `i` = field `i` in declaration order) |
+/// | 8 | `id` |
+/// | 8 | `accountId` |
+/// | 4 + n | `info` (UTF-8, length-prefixed) |
+///
+/// `null` fields take only their bit in the mask.
+public enum OrderDetailsCodec implements BinaryCodec<OrderDetails> {
+
+    INSTANCE;
+
+    @Override
+    public void write(OrderDetails order, ByteBuffer buffer) {
+        int nulls = (order.id() == null ? 1 : 0)
+                | (order.accountId() == null ? 1 << 1 : 0)
+                | (order.info() == null ? 1 << 2 : 0);
+        buffer.put((byte) nulls);
+        if (order.id() != null) {
+            buffer.putLong(order.id());
+        }
+        if (order.accountId() != null) {
+            buffer.putLong(order.accountId());
+        }
+        if (order.info() != null) {
+            BinaryCodec.putString(order.info(), buffer);
+        }
+    }
+
+    @Override
+    public OrderDetails read(ByteBuffer buffer) {
+        int nulls = buffer.get();
+        Long id = (nulls & 1) == 0 ? buffer.getLong() : null;
+        Long accountId = (nulls & 1 << 1) == 0 ? buffer.getLong() : null;
+        String info = (nulls & 1 << 2) == 0 ? BinaryCodec.getString(buffer) : null;
+        return new OrderDetails(id, accountId, info);
+    }
+}
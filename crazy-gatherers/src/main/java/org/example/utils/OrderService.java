@@ -0,0 +1,84 @@
+package org.example.utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/// # OrderService
+///
+/// A stand-in for the remote order service behind
+/// `CrazyGatherers.callToAnotherMicroserviceToGetOrder`, for tests and benchmarks
+/// of the concurrent gatherers.
+///
+/// Every call sleeps for a latency drawn from a [LatencyDistribution] and returns the same
+/// [OrderDetails] as the simulated call in `CrazyGatherers`. The service has a
+/// single-account endpoint and a bulk endpoint that pays the latency once per
+/// request, whatever the number of accounts. It counts calls and the highest number
+/// of requests in flight at the same time.
+public class OrderService {
+
+    private final LatencyDistribution latency;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder bulkCalls = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /// A service where every request takes `latency`.
+    public OrderService(Duration latency) {
+        this(LatencyDistribution.fixed(latency));
+    }
+
+    public OrderService(LatencyDistribution latency) {
+        this.latency = Objects.requireNonNull(latency);
+    }
+
+    /// Fetches the order of one account.
+    public OrderDetails findOrder(Long accountId) {
+        calls.increment();
+        call();
+        return order(accountId);
+    }
+
+    /// Fetches the orders of many accounts in one request, in the order of `accountIds`.
+    public List<OrderDetails> findOrders(List<Long> accountIds) {
+        bulkCalls.increment();
+        call();
+        return accountIds.stream()
+                .map(OrderService::order)
+                .toList();
+    }
+
+    /// The number of single-account requests served.
+    public long calls() {
+        return calls.sum();
+    }
+
+    /// The number of bulk requests served.
+    public long bulkCalls() {
+        return bulkCalls.sum();
+    }
+
+    /// The highest number of requests that were in flight at the same time.
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private void call() {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(latency.next());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("order request interrupted", e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static OrderDetails order(Long accountId) {
+        return new OrderDetails(accountId + 1, accountId, "some info");
+    }
+}
@@ -0,0 +1,387 @@
+package org.example.utils;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+
+/// # OrderSnapshot
+///
+/// A memory-mapped binary file of [OrderDetails], the order-side counterpart of
+/// [AccountSnapshot]:
+///
+/// ```
+/// | header (64 bytes) | rows (32 bytes each) | info heap |
+/// ```
+///
+/// | Row offset | Bytes | Field |
+/// |------------|-------|-------|
+/// | 0 | 8 | `id` |
+/// | 8 | 8 | `accountId` |
+/// | 16 | 8 | `info` position in the heap |
+/// | 24 | 4 | `info` UTF-8 length (+ 4 bytes of padding) |
+///
+/// The `info` texts stay in the mapped file as UTF-8 and are only decoded when an order
+/// is read, so opening a snapshot reads nothing onto the heap however many distinct
+/// texts it has. Texts often repeat, so the writer stores the first 65536 distinct
+/// ones once and points every later row with the same text at them; past that, texts
+/// are appended as they come, which keeps the writer's memory bounded too.
+///
+/// ```java
+/// OrderSnapshot.write(path, orders);
+///
+/// try (OrderSnapshot snapshot = OrderSnapshot.open(path)) {
+///     Map<Long, List<OrderDetails>> byAccount = snapshot.parallelStream()
+///             .collect(Collectors.groupingBy(OrderDetails::accountId));
+/// }
+/// ```
+///
+/// Can be read by any number of threads; `null` fields are not supported.
+public final class OrderSnapshot implements AutoCloseable {
+
+    /// The layout of one row.
+    public static final StructLayout ROW = MemoryLayout.structLayout(
+            ValueLayout.JAVA_LONG.withName("id"),
+            ValueLayout.JAVA_LONG.withName("accountId"),
+            ValueLayout.JAVA_LONG.withName("infoPosition"),
+            ValueLayout.JAVA_INT.withName("infoLength"),
+            MemoryLayout.paddingLayout(4)
+    ).withName("order");
+
+    static final long ID = ROW.byteOffset(groupElement("id"));
+    static final long ACCOUNT_ID = ROW.byteOffset(groupElement("accountId"));
+    static final long INFO_POSITION = ROW.byteOffset(groupElement("infoPosition"));
+    static final long INFO_LENGTH = ROW.byteOffset(groupElement("infoLength"));
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    // distinct info texts the writer stores only once
+    private static final int SHARED_INFOS = 1 << 16;
+
+    private final Arena arena;
+    private final MemorySegment rows;
+    private final MemorySegment infos;
+    private final long size;
+
+    private OrderSnapshot(Arena arena, MemorySegment rows, MemorySegment infos, long size) {
+        this.arena = arena;
+        this.rows = rows;
+        this.infos = infos;
+        this.size = size;
+    }
+
+    /// Writes `orders` to `file`, replacing it, and returns the number of orders written.
+    /// If `orders` or a write fails, `file` is left as it was.
+    public static long write(Path file, Iterable<OrderDetails> orders) throws IOException {
+        try (Writer writer = writer(file)) {
+            try {
+                for (OrderDetails order : orders) {
+                    writer.add(order);
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                writer.abort();
+                throw e;
+            }
+            return writer.size();
+        }
+    }
+
+    /// A writer that streams orders to a temporary file next to `file` and replaces
+    /// `file` with it once the writer is closed.
+    public static Writer writer(Path file) throws IOException {
+        return new Writer(file);
+    }
+
+    /// Maps `file`; closing the snapshot unmaps it.
+    ///
+    /// @throws IOException
+    ///   if the file cannot be read or is not an order snapshot
+    public static OrderSnapshot open(Path file) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            SnapshotFormat.Header header = SnapshotFormat.Header.read(mapped, SnapshotFormat.ORDERS, ROW.byteSize());
+            MemorySegment rows = mapped.asSlice(header.rowsOffset(), header.rowCount() * ROW.byteSize());
+            MemorySegment infos = mapped.asSlice(header.heapOffset(), header.heapLength());
+            return new OrderSnapshot(arena, rows, infos, header.rowCount());
+        } catch (IOException | RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /// The number of orders.
+    public long size() {
+        return size;
+    }
+
+    /// The order in `row`.
+    public OrderDetails order(long row) {
+        Objects.checkIndex(row, size);
+        long offset = row * ROW.byteSize();
+        byte[] info = new byte[rows.get(ValueLayout.JAVA_INT, offset + INFO_LENGTH)];
+        MemorySegment.copy(infos, ValueLayout.JAVA_BYTE, rows.get(ValueLayout.JAVA_LONG, offset + INFO_POSITION),
+                info, 0, info.length);
+        return new OrderDetails(
+                rows.get(ValueLayout.JAVA_LONG, offset + ID),
+                rows.get(ValueLayout.JAVA_LONG, offset + ACCOUNT_ID),
+                new String(info, StandardCharsets.UTF_8));
+    }
+
+    /// All orders; splits exactly in halves on row boundaries, so parallel streams
+    /// over a snapshot balance as well as over an array.
+    public Spliterator<OrderDetails> spliterator() {
+        return new RowSpliterator(0, size);
+    }
+
+    public Stream<OrderDetails> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<OrderDetails> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /// Unmaps the file; streams over it can no longer be used.
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private final class RowSpliterator implements Spliterator<OrderDetails> {
+
+        private long row;
+        private final long end;
+
+        RowSpliterator(long row, long end) {
+            this.row = row;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super OrderDetails> action) {
+            if (row >= end) {
+                return false;
+            }
+            action.accept(order(row++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super OrderDetails> action) {
+            for (; row < end; row++) {
+                action.accept(order(row));
+            }
+        }
+
+        @Override
+        public Spliterator<OrderDetails> trySplit() {
+            long middle = (row + end) >>> 1;
+            if (middle <= row) {
+                return null;
+            }
+            RowSpliterator prefix = new RowSpliterator(row, middle);
+            row = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - row;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /// Streams orders into a snapshot file.
+    ///
+    /// Rows are written to the file as they are added; info texts are buffered in a
+    /// temporary file next to it and copied after the rows on [#close()], followed by
+    /// the header. Everything goes to a temporary file that only replaces the target
+    /// once it is complete; after a failed [#add(OrderDetails)] or an [#abort()],
+    /// closing deletes it instead. Not thread-safe.
+    public static final class Writer implements AutoCloseable {
+
+        private final Path target;
+        private final Path temporary;
+        private final FileChannel file;
+        private final FileChannel heap;
+        private final ByteBuffer rows = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+        private final ByteBuffer strings = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        // heap position of each of the first SHARED_INFOS distinct texts
+        private final Map<String, Long> sharedInfos = new HashMap<>();
+        private long rowCount;
+        private long rowsWritten;
+        private long heapLength;
+        private long heapWritten;
+        private boolean failed;
+        private boolean closed;
+
+        private Writer(Path path) throws IOException {
+            this.target = path;
+            this.temporary = SnapshotFormat.createTemporary(path);
+            Path heapFile;
+            try {
+                heapFile = Files.createTempFile(path.toAbsolutePath().getParent(), "snapshot-", ".heap");
+            } catch (IOException | RuntimeException e) {
+                SnapshotFormat.discard(temporary, e);
+                throw e;
+            }
+            try {
+                this.heap = FileChannel.open(heapFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException | RuntimeException e) {
+                SnapshotFormat.discard(heapFile, e);
+                SnapshotFormat.discard(temporary, e);
+                throw e;
+            }
+            try {
+                this.file = FileChannel.open(temporary, StandardOpenOption.WRITE);
+            } catch (IOException | RuntimeException e) {
+                heap.close();
+                SnapshotFormat.discard(temporary, e);
+                throw e;
+            }
+        }
+
+        /// Appends an order.
+        ///
+        /// @throws NullPointerException
+        ///   if the order has a `null` field
+        public Writer add(OrderDetails order) throws IOException {
+            if (closed) {
+                throw new IllegalStateException("writer is closed");
+            }
+            try {
+                long id = order.id();
+                long accountId = order.accountId();
+                byte[] info = order.info().getBytes(StandardCharsets.UTF_8);
+                long infoPosition = infoPosition(order.info(), info);
+
+                if (rows.remaining() < ROW.byteSize()) {
+                    flushRows();
+                }
+                int offset = rows.position();
+                rows.putLong(offset + (int) ID, id)
+                        .putLong(offset + (int) ACCOUNT_ID, accountId)
+                        .putLong(offset + (int) INFO_POSITION, infoPosition)
+                        .putInt(offset + (int) INFO_LENGTH, info.length)
+                        .putInt(offset + (int) INFO_LENGTH + Integer.BYTES, 0)
+                        .position(offset + (int) ROW.byteSize());
+                rowCount++;
+                return this;
+            } catch (IOException | RuntimeException | Error e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        /// The number of orders added so far.
+        public long size() {
+            return rowCount;
+        }
+
+        /// Gives up the file: [#close()] deletes it and leaves the target as it was.
+        public void abort() {
+            failed = true;
+        }
+
+        /// Completes the file and moves it over the target, or deletes it after a failed
+        /// [#add(OrderDetails)] or an [#abort()]; releases the temporary info heap either way.
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                try (file; heap) {
+                    if (!failed) {
+                        complete();
+                    }
+                }
+                if (failed) {
+                    Files.delete(temporary);
+                } else {
+                    SnapshotFormat.publish(temporary, target);
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                SnapshotFormat.discard(temporary, e);
+                throw e;
+            }
+        }
+
+        // writes the rest of the file, the header last, and forces it to disk
+        private void complete() throws IOException {
+            flushRows();
+            flushStrings();
+            long heapOffset = SnapshotFormat.HEADER_SIZE + rowsWritten;
+            for (long copied = 0; copied < heapLength; ) {
+                copied += heap.transferTo(copied, heapLength - copied, file.position(heapOffset + copied));
+            }
+            // no dictionary: an empty section right after the heap
+            long end = heapOffset + heapLength;
+            new SnapshotFormat.Header(SnapshotFormat.ORDERS, (int) ROW.byteSize(), rowCount,
+                    SnapshotFormat.HEADER_SIZE, heapOffset, heapLength, end, 0)
+                    .write(file);
+            file.force(false);
+        }
+
+        // where `text` is in the heap: an earlier copy of a shared text, or a new one
+        private long infoPosition(String text, byte[] bytes) throws IOException {
+            Long shared = sharedInfos.get(text);
+            if (shared != null) {
+                return shared;
+            }
+            long position = appendString(bytes);
+            if (sharedInfos.size() < SHARED_INFOS) {
+                sharedInfos.put(text, position);
+            }
+            return position;
+        }
+
+        private long appendString(byte[] bytes) throws IOException {
+            long position = heapLength;
+            if (strings.remaining() < bytes.length) {
+                flushStrings();
+            }
+            if (strings.remaining() < bytes.length) {
+                heapWritten += SnapshotFormat.writeFully(heap, ByteBuffer.wrap(bytes), heapWritten);
+            } else {
+                strings.put(bytes);
+            }
+            heapLength += bytes.length;
+            return position;
+        }
+
+        private void flushRows() throws IOException {
+            rowsWritten += SnapshotFormat.writeFully(file, rows.flip(), SnapshotFormat.HEADER_SIZE + rowsWritten);
+            rows.clear();
+        }
+
+        private void flushStrings() throws IOException {
+            heapWritten += SnapshotFormat.writeFully(heap, strings.flip(), heapWritten);
+            strings.clear();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package org.example.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// # ScalableBloomFilter
+///
+/// A thread-safe scalable Bloom filter (Almeida et al., "Scalable Bloom Filters")
+/// with a hard memory cap.
+///
+/// The filter is a chain of plain Bloom filters (stages). Stage `i` holds
+/// `initialCapacity * 2^i` keys at a false-positive rate of `p * 2^-(i+1)`,
+/// so the compound rate of the whole chain stays below `p` however many stages
+/// are added. A new stage is appended when the current one is full.
+///
+/// When the next stage would not fit into `maxBytes`, the last stage gets whatever
+/// memory is left and then keeps absorbing keys: the heap stays flat and
+/// [#expectedFalsePositiveRate()] rises instead.
+///
+/// Keys are hashed to 64 bits: `CharSequence` keys character by character,
+/// other keys from `hashCode()` (at most 2^32 distinct hashes, so for billions of
+/// non-string keys the `hashCode()` collisions dominate the false-positive rate).
+///
+/// [#add(Object)] is atomic per key: bits are set with `getAndBitwiseOr`, and
+/// the "contains? then insert" step runs under one of 64 lock stripes chosen by the
+/// key hash, so the same key is never reported as new twice.
+public final class ScalableBloomFilter {
+
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int STRIPES = 64;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1 << 16;
+
+    private final double falsePositiveRate;
+    private final long maxBits;
+    private final Object[] locks = new Object[STRIPES];
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile Stage[] stages;
+
+    /// @param falsePositiveRate
+    ///   upper bound of the probability that a new key is reported as already seen, in `(0, 1)`
+    /// @param maxBytes
+    ///   the maximum size of all bit arrays together
+    public ScalableBloomFilter(double falsePositiveRate, long maxBytes) {
+        this(falsePositiveRate, maxBytes, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /// @param falsePositiveRate
+    ///   upper bound of the probability that a new key is reported as already seen, in `(0, 1)`
+    /// @param maxBytes
+    ///   the maximum size of all bit arrays together
+    /// @param initialCapacity
+    ///   the number of keys the first stage is sized for
+    public ScalableBloomFilter(double falsePositiveRate, long maxBytes, int initialCapacity) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("false-positive rate must be in (0, 1)");
+        }
+        if (maxBytes < Long.BYTES) {
+            throw new IllegalArgumentException("memory cap must be at least " + Long.BYTES + " bytes");
+        }
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initial capacity must be positive");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBits = Math.min(maxBytes, (long) Integer.MAX_VALUE * Long.BYTES) * Byte.SIZE;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.stages = new Stage[]{Stage.create(initialCapacity, falsePositiveRate / 2, maxBits)};
+    }
+
+    /// Adds the key and returns `true` if it was (most probably) not seen before,
+    /// `false` if it was seen before or is a false positive.
+    public boolean add(Object key) {
+        long hash = hash(key);
+        synchronized (locks[(int) (hash >>> 58)]) {
+            Stage[] current = stages;
+            for (Stage stage : current) {
+                if (stage.mightContain(hash)) {
+                    return false;
+                }
+            }
+            Stage last = current[current.length - 1];
+            last.put(hash);
+            if (last.count.incrementAndGet() >= last.capacity && !last.saturated) {
+                grow(last);
+            }
+        }
+        count.incrementAndGet();
+        return true;
+    }
+
+    /// `true` if the key was (most probably) added before.
+    public boolean mightContain(Object key) {
+        long hash = hash(key);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /// The number of keys added (reported as new).
+    public long count() {
+        return count.get();
+    }
+
+    /// The total size of all bit arrays in bytes.
+    public long sizeInBytes() {
+        long bits = 0;
+        for (Stage stage : stages) {
+            bits += stage.bitSize();
+        }
+        return bits / Byte.SIZE;
+    }
+
+    /// The number of stages allocated so far.
+    public int stageCount() {
+        return stages.length;
+    }
+
+    /// The current compound false-positive probability, estimated from the fill of every stage.
+    ///
+    /// Stays below the configured rate until the memory cap is reached.
+    public double expectedFalsePositiveRate() {
+        double none = 1;
+        for (Stage stage : stages) {
+            none *= 1 - stage.expectedFalsePositiveRate();
+        }
+        return 1 - none;
+    }
+
+    /// Removes all keys, keeping only a fresh first stage.
+    ///
+    /// Must not run concurrently with [#add(Object)].
+    public void clear() {
+        Stage first = stages[0];
+        stages = new Stage[]{Stage.create(first.capacity, falsePositiveRate / 2, maxBits)};
+        count.set(0);
+    }
+
+    private void grow(Stage full) {
+        synchronized (this) {
+            Stage[] current = stages;
+            Stage last = current[current.length - 1];
+            if (last != full || last.saturated) {
+                return;
+            }
+            long usedBits = 0;
+            for (Stage stage : current) {
+                usedBits += stage.bitSize();
+            }
+            long capacity = Math.min(last.capacity * 2, Integer.MAX_VALUE);
+            double rate = falsePositiveRate / (1L << Math.min(current.length + 1, 62));
+            Stage next = Stage.create(capacity, rate, maxBits - usedBits);
+            if (next == null) {
+                last.saturated = true;
+                return;
+            }
+            Stage[] grown = new Stage[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            grown[current.length] = next;
+            stages = grown;
+        }
+    }
+
+    /// 64-bit hash of a key.
+    static long hash(Object key) {
+        if (key == null) {
+            return 0x9E3779B97F4A7C15L;
+        }
+        if (key instanceof CharSequence chars) {
+            // FNV-1a over UTF-16 code units, then a final mix
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < chars.length(); i++) {
+                hash = (hash ^ chars.charAt(i)) * 0x100000001B3L;
+            }
+            return mix(hash);
+        }
+        return mix(key.hashCode() * 0x9E3779B97F4A7C15L);
+    }
+
+    // murmur3 fmix64
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Stage {
+
+        final long[] bits;
+        final int hashes;
+        final long capacity;
+        final AtomicLong count = new AtomicLong();
+        volatile boolean saturated;
+
+        private Stage(long[] bits, int hashes, long capacity, boolean saturated) {
+            this.bits = bits;
+            this.hashes = hashes;
+            this.capacity = capacity;
+            this.saturated = saturated;
+        }
+
+        /// Sizes a stage for `capacity` keys at `rate`, shrinking it to `availableBits` if needed;
+        /// `null` if less than one word is available.
+        static Stage create(long capacity, double rate, long availableBits) {
+            double ln2 = Math.log(2);
+            long wanted = (long) Math.ceil(-capacity * Math.log(rate) / (ln2 * ln2));
+            long words = Math.min((wanted + 63) / 64, availableBits / 64);
+            if (words == 0) {
+                return null;
+            }
+            boolean saturated = words * 64 < wanted;
+            long bitSize = words * 64;
+            long keys = saturated ? Math.max(1, (long) (bitSize * ln2 * ln2 / -Math.log(rate))) : capacity;
+            int hashes = (int) Math.max(1, Math.round((double) bitSize / keys * ln2));
+            return new Stage(new long[(int) words], hashes, keys, saturated);
+        }
+
+        long bitSize() {
+            return (long) bits.length * 64;
+        }
+
+        boolean mightContain(long hash) {
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            long size = bitSize();
+            for (int i = 0; i < hashes; i++) {
+                long index = Long.remainderUnsigned(h1 + i * h2, size);
+                if ((((long) BITS.getVolatile(bits, (int) (index >>> 6))) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long hash) {
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            long size = bitSize();
+            for (int i = 0; i < hashes; i++) {
+                long index = Long.remainderUnsigned(h1 + i * h2, size);
+                BITS.getAndBitwiseOr(bits, (int) (index >>> 6), 1L << index);
+            }
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashes * (double) count.get() / bitSize()), hashes);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.utils;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/// The parts shared by the snapshot files of [AccountSnapshot] and [OrderSnapshot]:
+///
+/// ```
+/// | header (64 bytes) | rows | string heap | dictionary |
+/// ```
+///
+/// All numbers are in the native byte order of the writer, so rows can be written
+/// from and mapped to [MemorySegment]s without conversion; a file written on a
+/// machine with the other byte order is rejected by its magic number.
+///
+/// | Header offset | Bytes | Field |
+/// |---------------|-------|-------|
+/// | 0 | 4 | magic `SNAP` |
+/// | 4 | 4 | format version |
+/// | 8 | 4 | kind (accounts, orders) |
+/// | 12 | 4 | row size in bytes |
+/// | 16 | 8 | row count |
+/// | 24 | 8 | rows offset |
+/// | 32 | 8 | string heap offset |
+/// | 40 | 8 | string heap length |
+/// | 48 | 8 | dictionary offset |
+/// | 56 | 8 | dictionary length |
+///
+/// The dictionary is an `int` count followed by every string as an `int` UTF-8 length
+/// and its bytes, in code order.
+///
+/// Writers fill a temporary file next to the target (see [#createTemporary(Path)]) and
+/// [#publish(Path, Path)] it only once it is complete, so a failed or
+/// crashed write leaves the previous snapshot in place.
+final class SnapshotFormat {
+
+    static final int MAGIC = 'S' << 24 | 'N' << 16 | 'A' << 8 | 'P';
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    static final int ACCOUNTS = 1;
+    static final int ORDERS = 2;
+
+    private SnapshotFormat() {
+    }
+
+    record Header(int kind, int rowSize, long rowCount, long rowsOffset,
+                  long heapOffset, long heapLength, long dictionaryOffset, long dictionaryLength) {
+
+        void write(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder())
+                    .putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(rowSize)
+                    .putLong(rowCount).putLong(rowsOffset)
+                    .putLong(heapOffset).putLong(heapLength)
+                    .putLong(dictionaryOffset).putLong(dictionaryLength)
+                    .flip();
+            writeFully(channel, buffer, 0);
+        }
+
+        /// Reads and checks the header of a mapped file.
+        static Header read(MemorySegment file, int kind, long rowSize) throws IOException {
+            if (file.byteSize() < HEADER_SIZE) {
+                throw new IOException("not a snapshot: file too short");
+            }
+            if (file.get(ValueLayout.JAVA_INT, 0) != MAGIC) {
+                throw new IOException("not a snapshot, or written with another byte order");
+            }
+            if (file.get(ValueLayout.JAVA_INT, 4) != VERSION) {
+                throw new IOException("unsupported snapshot version " + file.get(ValueLayout.JAVA_INT, 4));
+            }
+            Header header = new Header(
+                    file.get(ValueLayout.JAVA_INT, 8), file.get(ValueLayout.JAVA_INT, 12),
+                    file.get(ValueLayout.JAVA_LONG, 16), file.get(ValueLayout.JAVA_LONG, 24),
+                    file.get(ValueLayout.JAVA_LONG, 32), file.get(ValueLayout.JAVA_LONG, 40),
+                    file.get(ValueLayout.JAVA_LONG, 48), file.get(ValueLayout.JAVA_LONG, 56));
+            if (header.kind != kind || header.rowSize != rowSize) {
+                throw new IOException("snapshot of another kind: " + header.kind + " with rows of " + header.rowSize + " bytes");
+            }
+            if (header.rowsOffset < HEADER_SIZE
+                    || header.heapOffset != header.rowsOffset + header.rowCount * rowSize
+                    || header.dictionaryOffset != header.heapOffset + header.heapLength
+                    || header.dictionaryOffset + header.dictionaryLength != file.byteSize()) {
+                throw new IOException("corrupt snapshot: sections do not match the file size");
+            }
+            return header;
+        }
+    }
+
+    /// Writes the dictionary at `offset` and returns its length.
+    static long writeDictionary(FileChannel channel, StringDictionary dictionary, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.nativeOrder());
+        buffer.putInt(dictionary.size());
+        long position = offset;
+        for (int code = 0; code < dictionary.size(); code++) {
+            byte[] bytes = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                position += writeFully(channel, buffer.flip(), position);
+                buffer.clear();
+                if (buffer.capacity() < Integer.BYTES + bytes.length) {
+                    buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length).order(ByteOrder.nativeOrder());
+                }
+            }
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        position += writeFully(channel, buffer.flip(), position);
+        return position - offset;
+    }
+
+    static StringDictionary readDictionary(MemorySegment segment) throws IOException {
+        StringDictionary dictionary = new StringDictionary();
+        long position = 0;
+        int count = segment.get(ValueLayout.JAVA_INT_UNALIGNED, position);
+        position += Integer.BYTES;
+        for (int code = 0; code < count; code++) {
+            int length = segment.get(ValueLayout.JAVA_INT_UNALIGNED, position);
+            position += Integer.BYTES;
+            byte[] bytes = new byte[length];
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, position, bytes, 0, length);
+            position += length;
+            if (dictionary.encode(new String(bytes, StandardCharsets.UTF_8)) != code) {
+                throw new IOException("corrupt snapshot: duplicate dictionary entry");
+            }
+        }
+        return dictionary;
+    }
+
+    /// Writes all of `buffer` at `position` and returns the number of bytes written.
+    static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    /// A new empty file in the directory of `target`, so that it can be renamed over it.
+    static Path createTemporary(Path target) throws IOException {
+        return Files.createTempFile(target.toAbsolutePath().getParent(), "snapshot-", ".tmp");
+    }
+
+    /// Renames the complete `temporary` file, already forced to disk, over `target` in one
+    /// atomic step: readers, and the file system after a crash, see either the previous
+    /// snapshot or the new one.
+    static void publish(Path temporary, Path target) throws IOException {
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /// Deletes an unpublished temporary file after `failure`.
+    static void discard(Path temporary, Throwable failure) {
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/// # StringDictionary
+///
+/// Encodes strings as dense `int` codes `0, 1, 2, ...` in the order they are first
+/// seen, so a column of repeated values (first names, last names, email domains)
+/// can be stored as an `int[]` with every distinct string kept once.
+///
+/// ```java
+/// StringDictionary names = new StringDictionary();
+/// int alice = names.encode("Alice");   // 0
+/// names.encode("Bob");                 // 1
+/// names.encode("Alice");               // 0 again
+/// names.decode(alice);                 // "Alice"
+/// ```
+///
+/// Not thread-safe while encoding; decoding a built dictionary is safe from any thread.
+public final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /// The code of `value`, assigning the next one if it is new.
+    public int encode(String value) {
+        Objects.requireNonNull(value);
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /// The code of `value`, or `-1` if it was never encoded.
+    public int code(String value) {
+        return codes.getOrDefault(value, -1);
+    }
+
+    /// The string of `code`.
+    ///
+    /// @throws IndexOutOfBoundsException
+    ///   if `code` was not assigned by this dictionary
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /// The number of distinct strings.
+    public int size() {
+        return values.size();
+    }
+}
@@ -1,6 +1,7 @@
 package org.example;
 
 import org.example.utils.Account;
+import org.example.utils.AccountTable;
 import org.example.utils.OrderDetails;
 import org.example.utils.Gender;
 import org.example.utils.DataUtils;
@@ -14,6 +15,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -385,4 +387,65 @@ class CrazyGatherersTest {
                         expectedTimeMillis, cores, duration.toMillis())
                 .isLessThan(expectedTimeMillis);
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(21)
+    void getListOfOrdersByAccountsInBatches_makesOneCallPerBatch() {
+        int accountSize = 200;
+        var accounts = DataUtils.randomAccounts(accountSize);
+        CrazyGatherers crazyGatherers = new CrazyGatherers(accounts);
+
+        Instant start = Instant.now();
+
+        List<OrderDetails> orders = crazyGatherers.getListOfOrdersByAccountsInBatches(50);
+
+        Duration duration = Duration.between(start, Instant.now());
+
+        // 4 batches of 50 sent concurrently: about one second of latency in total
+        assertThat(orders)
+                .extracting(OrderDetails::accountId)
+                .containsExactlyElementsOf(accounts.stream().map(Account::id).toList());
+        assertThat(duration.toMillis())
+                .as("Expected 4 concurrent bulk calls to take about 1 s, but took %d ms", duration.toMillis())
+                .isLessThan(2_500);
+    }
+
+    @Test
+    @Order(22)
+    void getListOfOrdersByAccountsCached_callsOncePerAccount() {
+        var accounts = DataUtils.randomAccounts(10);
+        List<Account> repeated = Stream.generate(() -> accounts).limit(5).flatMap(List::stream).toList();
+        CrazyGatherers crazyGatherers = new CrazyGatherers(repeated);
+
+        Instant start = Instant.now();
+
+        List<OrderDetails> orders = crazyGatherers.getListOfOrdersByAccountsCached();
+
+        Duration duration = Duration.between(start, Instant.now());
+
+        // 10 distinct accounts looked up concurrently, the 40 repeats wait for them
+        assertThat(orders)
+                .extracting(OrderDetails::accountId)
+                .containsExactlyElementsOf(repeated.stream().map(Account::id).toList());
+        assertThat(crazyGatherers.getOrderCacheStats().misses()).isEqualTo(10);
+        assertThat(duration.toMillis())
+                .as("Expected 10 concurrent calls to take about 1 s, but took %d ms", duration.toMillis())
+                .isLessThan(2_500);
+    }
+
+    @Test
+    @Order(23)
+    void columnarQueriesMatchTheRecordQueries() {
+        List<Account> accounts = DataUtils.randomAccounts(1_000);
+        CrazyGatherers columnar = new CrazyGatherers(AccountTable.of(accounts));
+        LocalDate date = LocalDate.of(1988, 12, 31);
+
+        assertThat(columnar.filterByGenderColumnar(Gender.FEMALE))
+                .isEqualTo(accounts.stream().filter(account -> account.gender() == Gender.FEMALE).toList());
+        assertThat(columnar.dropWhileBornAfterColumnar(date))
+                .isEqualTo(accounts.stream().dropWhile(account -> account.birthday().isAfter(date)).toList());
+        assertThatNullPointerException()
+                .isThrownBy(() -> new CrazyGatherers(accounts).filterByGenderColumnar(Gender.FEMALE))
+                .withMessage("created without an AccountTable");
+    }
+}
@@ -0,0 +1,437 @@
+package org.example.gatherers;
+
+import org.example.utils.LatencyDistribution;
+import org.example.utils.OrderDetails;
+import org.example.utils.OrderService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConcurrentGatherersTest {
+
+    @Test
+    void batchesPreserveEncounterOrder() {
+        OrderService service = new OrderService(Duration.ofMillis(50));
+        List<Long> ids = LongStream.rangeClosed(1, 1_000).boxed().toList();
+
+        List<OrderDetails> orders = ids.stream()
+                .gather(ConcurrentGatherers.batchConcurrent(64, Duration.ofSeconds(1), 4, service::findOrders))
+                .toList();
+
+        assertThat(orders).extracting(OrderDetails::accountId).containsExactlyElementsOf(ids);
+        assertThat(service.bulkCalls()).isEqualTo(16);
+        assertThat(service.maxInFlight()).isBetween(2, 4);
+    }
+
+    @Test
+    void lingeringBatchIsSentWithoutWaitingForMoreElements() {
+        OrderService service = new OrderService(Duration.ofMillis(10));
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        List<OrderDetails> orders = Stream.of(1L, 2L, 3L)
+                .peek(_ -> sleep(Duration.ofMillis(200)))
+                .gather(ConcurrentGatherers.<Long, OrderDetails>batchConcurrent(100, Duration.ofMillis(20), 2, batch -> {
+                    batchSizes.add(batch.size());
+                    return service.findOrders(batch);
+                }))
+                .toList();
+
+        assertThat(orders).extracting(OrderDetails::accountId).containsExactly(1L, 2L, 3L);
+        assertThat(batchSizes).containsExactly(1, 1, 1);
+    }
+
+    @Test
+    void stopsWhenDownstreamRejects() {
+        OrderService service = new OrderService(Duration.ofMillis(20));
+
+        List<OrderDetails> orders = LongStream.iterate(1, id -> id + 1).boxed()
+                .gather(ConcurrentGatherers.batchConcurrent(10, Duration.ofMillis(5), 2, service::findOrders))
+                .limit(25)
+                .toList();
+
+        assertThat(orders).hasSize(25);
+        assertThat(service.bulkCalls()).isLessThan(10);
+    }
+
+    @Test
+    void propagatesBulkFailures() {
+        assertThatIllegalStateException()
+                .isThrownBy(() -> Stream.of(1, 2, 3)
+                        .gather(ConcurrentGatherers.<Integer, Integer>batchConcurrent(2, Duration.ZERO, 2, _ -> {
+                            throw new IllegalStateException("order service down");
+                        }))
+                        .toList())
+                .withMessage("order service down");
+        assertThatIllegalStateException()
+                .isThrownBy(() -> Stream.of(1, 2, 3)
+                        .gather(ConcurrentGatherers.<Integer, Integer>batchConcurrent(2, Duration.ZERO, 2, _ -> List.of()))
+                        .toList())
+                .withMessageContaining("returned 0 results");
+    }
+
+    @Test
+    void failedBulkCallCancelsTheLingerTimer() {
+        AtomicInteger bulkCalls = new AtomicInteger();
+        CountDownLatch failed = new CountDownLatch(1);
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> Stream.of(1, 2, 3)
+                        // the third element starts a linger timer only once the first batch has failed
+                        .peek(n -> {
+                            if (n == 3) {
+                                await(failed);
+                            }
+                        })
+                        .gather(ConcurrentGatherers.<Integer, Integer>batchConcurrent(2, Duration.ofSeconds(1), 1, _ -> {
+                            try {
+                                bulkCalls.incrementAndGet();
+                                throw new IllegalStateException("order service down");
+                            } finally {
+                                failed.countDown();
+                            }
+                        }))
+                        .toList())
+                .withMessage("order service down");
+
+        // the failure shut the executor down, so the timer can no longer send the third element
+        assertThat(bulkCalls).hasValue(1);
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ConcurrentGatherers.batchConcurrent(0, Duration.ZERO, 1, List::copyOf));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ConcurrentGatherers.batchConcurrent(1, Duration.ZERO, 0, List::copyOf));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ConcurrentGatherers.batchConcurrent(1, Duration.ofMillis(-1), 1, List::copyOf));
+    }
+
+    @Test
+    void adaptiveMapPreservesEncounterOrderWithinCeiling() {
+        OrderService service = new OrderService(Duration.ofMillis(20));
+        AdaptiveLimit limit = new AdaptiveLimit(2, 16);
+        List<Long> ids = LongStream.rangeClosed(1, 300).boxed().toList();
+
+        List<OrderDetails> orders = ids.stream()
+                .gather(ConcurrentGatherers.mapConcurrentAdaptive(limit, service::findOrder))
+                .toList();
+
+        assertThat(orders).extracting(OrderDetails::accountId).containsExactlyElementsOf(ids);
+        assertThat(service.maxInFlight()).isBetween(3, 16);
+        assertThat(limit.currentLimit()).isGreaterThan(2);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void adaptiveMapStopsWhenDownstreamRejects() {
+        OrderService service = new OrderService(Duration.ofMillis(10));
+        AdaptiveLimit limit = new AdaptiveLimit(1, 4);
+
+        List<OrderDetails> orders = LongStream.iterate(1, id -> id + 1).boxed()
+                .gather(ConcurrentGatherers.mapConcurrentAdaptive(limit, service::findOrder))
+                .limit(10)
+                .toList();
+
+        assertThat(orders).extracting(OrderDetails::accountId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(service.calls()).isLessThan(20);
+    }
+
+    @Test
+    void adaptiveMapPropagatesFailuresAndReleasesSlots() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 4, 8, 2, 0.5);
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> Stream.of(1, 2, 3)
+                        .gather(ConcurrentGatherers.<Integer, Integer>mapConcurrentAdaptive(limit, n -> {
+                            if (n == 2) {
+                                throw new IllegalStateException("order service down");
+                            }
+                            return n;
+                        }))
+                        .toList())
+                .withMessage("order service down");
+        for (int i = 0; i < 100 && limit.inFlight() > 0; i++) {
+            sleep(Duration.ofMillis(10));
+        }
+        assertThat(limit.inFlight()).isZero();
+        assertThat(limit.currentLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void adaptiveLimitGrowsWhileCallsStayFast() throws InterruptedException {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 10);
+
+        for (int round = 0; round < 50; round++) {
+            long[] starts = new long[limit.currentLimit()];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = limit.acquire();
+            }
+            for (long start : starts) {
+                limit.release(start - Duration.ofMillis(10).toNanos(), true);
+            }
+        }
+
+        assertThat(limit.currentLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void adaptiveLimitBacksOffOnFailuresAndSlowCalls() throws InterruptedException {
+        long[] now = {0};
+        AdaptiveLimit limit = new AdaptiveLimit(20, 2, 20, 2, 0.5, () -> now[0]);
+
+        long start = limit.acquire();
+        now[0] += Duration.ofMillis(10).toNanos();
+        limit.release(start, true);
+        assertThat(limit.currentLimit()).isEqualTo(20);
+
+        start = limit.acquire();
+        limit.release(start, false);
+        assertThat(limit.currentLimit()).isEqualTo(10);
+
+        start = limit.acquire();
+        now[0] += Duration.ofMillis(50).toNanos();
+        limit.release(start, true);
+        assertThat(limit.currentLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 5; i++) {
+            now[0]++;
+            start = limit.acquire();
+            limit.release(start, false);
+        }
+        assertThat(limit.currentLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void adaptiveLimitBacksOffOncePerLatencySpike() throws InterruptedException {
+        long[] now = {0};
+        AdaptiveLimit limit = new AdaptiveLimit(16, 1, 16, 2, 0.5, () -> now[0]);
+        long start = limit.acquire();
+        now[0] += Duration.ofMillis(10).toNanos();
+        limit.release(start, true);
+
+        // all 16 calls in flight see the same spike
+        long[] starts = new long[16];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = limit.acquire();
+        }
+        now[0] += Duration.ofMillis(100).toNanos();
+        for (long inFlight : starts) {
+            limit.release(inFlight, false);
+        }
+
+        assertThat(limit.currentLimit()).isEqualTo(8);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void abandonedCallsDoNotChangeTheLimit() throws InterruptedException {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 1, 4, 2, 0.5);
+
+        for (int i = 0; i < 4; i++) {
+            limit.acquire();
+        }
+        for (int i = 0; i < 4; i++) {
+            limit.abandon();
+        }
+
+        assertThat(limit.currentLimit()).isEqualTo(4);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void adaptiveMapDoesNotBackOffForCallsItInterrupts() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 1, 8, 10, 0.5);
+
+        List<Long> ids = LongStream.iterate(1, id -> id + 1).boxed()
+                .gather(ConcurrentGatherers.<Long, Long>mapConcurrentAdaptive(limit, id -> {
+                    sleep(Duration.ofMillis(50));
+                    return id;
+                }))
+                .limit(3)
+                .toList();
+        for (int i = 0; i < 100 && limit.inFlight() > 0; i++) {
+            sleep(Duration.ofMillis(10));
+        }
+
+        assertThat(ids).containsExactly(1L, 2L, 3L);
+        assertThat(limit.inFlight()).isZero();
+        assertThat(limit.currentLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void adaptiveLimitQueuesCallsOverTheLimit() throws Exception {
+        AdaptiveLimit limit = new AdaptiveLimit(1, 1);
+        long first = limit.acquire();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Long> second = executor.submit(limit::acquire);
+            sleep(Duration.ofMillis(100));
+            assertThat(second).isNotDone();
+
+            limit.release(first, true);
+            limit.release(second.get(), true);
+        }
+
+        assertThat(limit.queueingDelay()).isPositive();
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void adaptiveLimitRejectsInvalidConfiguration() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveLimit(0, 4));
+        assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveLimit(4, 2));
+        assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveLimit(1, 1, 4, 1, 0.5));
+        assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveLimit(1, 1, 4, 2, 1));
+    }
+
+    @Test
+    void unorderedMapPushesResultsInCompletionOrder() {
+        List<Integer> results = Stream.of(300, 100, 200)
+                .gather(ConcurrentGatherers.mapConcurrentUnordered(3, (Integer millis) -> {
+                    sleep(Duration.ofMillis(millis));
+                    return millis;
+                }))
+                .toList();
+
+        assertThat(results).containsExactly(100, 200, 300);
+    }
+
+    @Test
+    void unorderedMapBoundsInFlightTasks() {
+        OrderService service = new OrderService(Duration.ofMillis(20));
+        List<Long> ids = LongStream.rangeClosed(1, 200).boxed().toList();
+
+        List<OrderDetails> orders = ids.stream()
+                .gather(ConcurrentGatherers.mapConcurrentUnordered(8, service::findOrder))
+                .toList();
+
+        assertThat(orders).extracting(OrderDetails::accountId).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(service.maxInFlight()).isBetween(2, 8);
+    }
+
+    @Test
+    void unorderedMapCancelsOutstandingTasksWhenDownstreamRejects() {
+        OrderService service = new OrderService(Duration.ofMillis(20));
+        List<Long> interrupted = Collections.synchronizedList(new ArrayList<>());
+
+        List<OrderDetails> orders = LongStream.iterate(1, id -> id + 1).boxed()
+                .gather(ConcurrentGatherers.<Long, OrderDetails>mapConcurrentUnordered(4, id -> {
+                    try {
+                        return service.findOrder(id);
+                    } catch (IllegalStateException e) {
+                        interrupted.add(id);
+                        throw e;
+                    }
+                }))
+                .limit(10)
+                .toList();
+
+        assertThat(orders).hasSize(10);
+        assertThat(service.calls()).isLessThan(20);
+        sleep(Duration.ofMillis(100));
+        assertThat(interrupted).isNotEmpty();
+    }
+
+    @Test
+    void unorderedMapPropagatesFailures() {
+        assertThatIllegalStateException()
+                .isThrownBy(() -> Stream.of(1, 2, 3)
+                        .gather(ConcurrentGatherers.<Integer, Integer>mapConcurrentUnordered(2, n -> {
+                            if (n == 2) {
+                                throw new IllegalStateException("order service down");
+                            }
+                            return n;
+                        }))
+                        .toList())
+                .withMessage("order service down");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ConcurrentGatherers.mapConcurrentUnordered(0, Function.identity()));
+    }
+
+    @Test
+    void hedgedMapCutsTheLatencyTail() {
+        // every 20th request takes 400 ms, the others 5 ms
+        List<Duration> latencies = new ArrayList<>(Collections.nCopies(19, Duration.ofMillis(5)));
+        latencies.add(Duration.ofMillis(400));
+        OrderService service = new OrderService(LatencyDistribution.sequence(latencies));
+        List<Long> ids = LongStream.rangeClosed(1, 100).boxed().toList();
+
+        long start = System.nanoTime();
+        List<OrderDetails> orders = ids.stream()
+                .gather(ConcurrentGatherers.mapConcurrentHedged(1, service::findOrder))
+                .toList();
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+
+        // without hedging: 95 * 5 ms + 5 * 400 ms = 2475 ms
+        assertThat(orders).extracting(OrderDetails::accountId).containsExactlyElementsOf(ids);
+        // 5% of the calls are slow: hedging them, plus the odd jittery fast call, stays within 10%
+        long hedges = service.calls() - ids.size();
+        assertThat(hedges).isBetween(1L, 10L);
+        assertThat(took).isLessThan(Duration.ofMillis(1_500));
+    }
+
+    @Test
+    void hedgedMapFallsBackAfterTheDeadline() {
+        OrderService fast = new OrderService(Duration.ofMillis(10));
+        OrderService stuck = new OrderService(Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        List<OrderDetails> orders = Stream.of(1L, 2L, 3L, 4L)
+                .gather(ConcurrentGatherers.<Long, OrderDetails>mapConcurrentHedged(4, Duration.ofMillis(200),
+                        id -> new OrderDetails(-1L, id, "unavailable"),
+                        id -> id == 3 ? stuck.findOrder(id) : fast.findOrder(id)))
+                .toList();
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(orders).extracting(OrderDetails::info)
+                .containsExactly("some info", "some info", "unavailable", "some info");
+        assertThat(took).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void hedgedMapPropagatesFailures() {
+        assertThatIllegalStateException()
+                .isThrownBy(() -> Stream.of(1, 2, 3)
+                        .gather(ConcurrentGatherers.<Integer, Integer>mapConcurrentHedged(2, n -> {
+                            if (n == 2) {
+                                throw new IllegalStateException("order service down");
+                            }
+                            return n;
+                        }))
+                        .toList())
+                .withMessage("order service down");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ConcurrentGatherers.mapConcurrentHedged(1, Duration.ZERO, Function.identity(), Function.identity()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.gatherers;
+
+import org.example.utils.Account;
+import org.example.utils.DataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Gatherer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DistinctGatherersTest {
+
+    @Test
+    void orderedKeepsFirstInEncounterOrder() {
+        List<Account> accounts = DataUtils.randomAccounts(100_000);
+        Map<String, Account> firstByName = new LinkedHashMap<>();
+        accounts.forEach(account -> firstByName.putIfAbsent(account.firstName(), account));
+
+        List<Account> result = accounts.parallelStream()
+                .gather(DistinctGatherers.distinctBy(Account::firstName))
+                .toList();
+
+        assertThat(result).containsExactlyElementsOf(firstByName.values());
+    }
+
+    @Test
+    void orderedStreamsWithoutWaitingForTheEnd() {
+        List<Integer> result = Stream.iterate(0, i -> i + 1)
+                .gather(DistinctGatherers.distinctBy(i -> i % 7))
+                .limit(3)
+                .toList();
+
+        assertThat(result).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void unorderedKeepsOneElementPerKey() {
+        List<Account> accounts = DataUtils.randomAccounts(100_000);
+
+        List<Account> result = accounts.parallelStream()
+                .gather(DistinctGatherers.unorderedDistinctBy(Account::firstName))
+                .toList();
+
+        assertThat(result).hasSize(10);
+        assertThat(result).extracting(Account::firstName).doesNotHaveDuplicates();
+        assertThat(accounts).containsAll(result);
+    }
+
+    @Test
+    void unorderedInstanceCanBeReusedAfterCompletion() {
+        Gatherer<Integer, ?, Integer> distinct = DistinctGatherers.unorderedDistinctBy(i -> i % 100);
+
+        long first = IntStream.range(0, 10_000).boxed().parallel().gather(distinct).count();
+        long second = IntStream.range(0, 10_000).boxed().parallel().gather(distinct).count();
+
+        assertThat(first).isEqualTo(100);
+        assertThat(second).isEqualTo(100);
+    }
+
+    @Test
+    void unorderedInstanceForgetsKeysOfAFailedRun() {
+        Gatherer<Integer, ?, Integer> distinct = DistinctGatherers.unorderedDistinctBy(i -> i % 100);
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> IntStream.range(0, 10_000).boxed().parallel()
+                        .gather(distinct)
+                        .peek(i -> {
+                            if (i % 100 == 42) {
+                                throw new IllegalStateException("downstream failed");
+                            }
+                        })
+                        .toList());
+
+        assertThat(IntStream.range(0, 10_000).boxed().parallel().gather(distinct).count()).isEqualTo(100);
+    }
+
+    @Test
+    void unorderedInstanceCanBeUsedByConcurrentPipelines() throws Exception {
+        Gatherer<Integer, ?, Integer> distinct = DistinctGatherers.unorderedDistinctBy(i -> i % 1_000);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> counts = IntStream.range(0, 8)
+                    .mapToObj(_ -> executor.submit(() -> IntStream.range(0, 100_000).boxed().parallel().gather(distinct).count()))
+                    .toList();
+            for (Future<Long> count : counts) {
+                assertThat(count.get()).isEqualTo(1_000);
+            }
+        }
+    }
+
+    @Test
+    void composedUnorderedInstanceCanBeReused() {
+        Gatherer<Integer, ?, Integer> distinctDoubled = DistinctGatherers.<Integer, Integer>unorderedDistinctBy(i -> i % 100)
+                .andThen(doubled());
+
+        assertThat(IntStream.range(0, 10_000).boxed().gather(distinctDoubled).count()).isEqualTo(100);
+        assertThat(IntStream.range(0, 10_000).boxed().gather(distinctDoubled).count()).isEqualTo(100);
+        assertThat(IntStream.range(0, 10_000).boxed().parallel().gather(distinctDoubled).count()).isEqualTo(100);
+        assertThat(IntStream.range(0, 10_000).boxed().parallel().gather(distinctDoubled).toList())
+                .containsExactlyElementsOf(IntStream.range(0, 100).mapToObj(i -> i * 2).toList());
+    }
+
+    @Test
+    void approximateNeverLetsADuplicateThrough() {
+        List<String> emails = IntStream.range(0, 1_000_000)
+                .mapToObj(i -> "user" + (i % 200_000) + "@example.com")
+                .toList();
+
+        List<String> result = emails.parallelStream()
+                .gather(DistinctGatherers.approximateDistinctBy((String email) -> email, 0.001, 8L << 20))
+                .toList();
+
+        assertThat(result).doesNotHaveDuplicates();
+        assertThat(result).hasSizeBetween(200_000 - 200, 200_000);
+    }
+
+    @Test
+    void approximateInstanceForgetsKeysOfAnAbandonedRun() {
+        Gatherer<Integer, ?, Integer> distinct = DistinctGatherers.approximateDistinctBy(i -> i, 0.001, 1L << 20);
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> IntStream.range(0, 10_000).boxed()
+                        .gather(distinct)
+                        .forEach(i -> {
+                            if (i == 5_000) {
+                                throw new IllegalStateException("downstream failed");
+                            }
+                        }));
+
+        assertThat(IntStream.range(0, 10_000).boxed().gather(distinct).count()).isGreaterThan(9_900);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> DistinctGatherers.approximateDistinctBy(i -> i, 1, 1L << 20));
+    }
+
+    @Test
+    void composedApproximateInstanceCanBeReused() {
+        Gatherer<Integer, ?, Integer> distinctDoubled = DistinctGatherers.<Integer, Integer>approximateDistinctBy(i -> i, 0.001, 1L << 20)
+                .andThen(doubled());
+
+        assertThat(IntStream.range(0, 10_000).boxed().gather(distinctDoubled).count()).isGreaterThan(9_900);
+        assertThat(IntStream.range(0, 10_000).boxed().gather(distinctDoubled).count()).isGreaterThan(9_900);
+        assertThat(IntStream.range(0, 10_000).boxed().parallel().gather(distinctDoubled).count()).isGreaterThan(9_900);
+    }
+
+    @Test
+    void supportsNullKeys() {
+        List<String> names = Arrays.asList("a", null, "b", null, "a");
+
+        assertThat(names.stream().gather(DistinctGatherers.distinctBy(name -> name)).toList())
+                .containsExactly("a", null, "b");
+        assertThat(names.stream().gather(DistinctGatherers.unorderedDistinctBy(name -> name)).toList())
+                .containsExactly("a", null, "b");
+    }
+
+    // stateless and parallel, so a composition with it stays parallel
+    private static Gatherer<Integer, ?, Integer> doubled() {
+        return Gatherer.of(Gatherer.Integrator.<Void, Integer, Integer>ofGreedy((_, i, downstream) -> downstream.push(i * 2)));
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.gatherers;
+
+import org.example.gatherers.FrequencyGatherers.Frequency;
+import org.example.utils.Account;
+import org.example.utils.DataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FrequencyGatherersTest {
+
+    @Test
+    void frequenciesAreExact() {
+        List<String> firstNames = DataUtils.randomAccounts(100_000).stream().map(Account::firstName).toList();
+        Map<String, Long> expected = firstNames.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        Map<String, Long> sequential = firstNames.stream()
+                .gather(FrequencyGatherers.frequencies())
+                .collect(Collectors.toMap(Frequency::value, Frequency::count));
+        Map<String, Long> parallel = firstNames.parallelStream()
+                .gather(FrequencyGatherers.frequencies())
+                .collect(Collectors.toMap(Frequency::value, Frequency::count));
+
+        assertThat(sequential).isEqualTo(expected);
+        assertThat(parallel).isEqualTo(expected);
+    }
+
+    @Test
+    void frequenciesGrowAndCountNulls() {
+        List<Integer> numbers = IntStream.range(0, 300_000)
+                .mapToObj(i -> i % 3 == 0 ? null : i % 50_000)
+                .toList();
+
+        List<Frequency<Integer>> frequencies = numbers.parallelStream()
+                .gather(FrequencyGatherers.frequencies())
+                .toList();
+
+        assertThat(frequencies).hasSize(50_001);
+        assertThat(frequencies).allMatch(frequency -> frequency.error() == 0);
+        assertThat(frequencies).filteredOn(frequency -> frequency.value() == null)
+                .singleElement()
+                .extracting(Frequency::count)
+                .isEqualTo(100_000L);
+        assertThat(frequencies.stream().mapToLong(Frequency::count).sum()).isEqualTo(300_000);
+    }
+
+    @Test
+    void heavyHittersFindTheMostFrequentWithinBounds() {
+        // Zipf-like: key i occurs about 1/(i+1) as often as key 0, over 100 000 distinct keys
+        Random random = new Random(42);
+        List<Integer> ids = IntStream.range(0, 1_000_000)
+                .mapToObj(_ -> (int) Math.floor(Math.pow(100_000, random.nextDouble())) - 1)
+                .toList();
+        Map<Integer, Long> exact = ids.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        List<Integer> expectedTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                .limit(5)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            List<Frequency<Integer>> top = (parallel ? ids.parallelStream() : ids.stream())
+                    .gather(FrequencyGatherers.heavyHitters(1_000, 5))
+                    .toList();
+
+            assertThat(top).extracting(Frequency::value).containsExactlyElementsOf(expectedTop);
+            assertThat(top).allSatisfy(frequency -> {
+                long trueCount = exact.get(frequency.value());
+                assertThat(trueCount).isBetween(frequency.guaranteedCount(), frequency.count());
+            });
+            assertThat(top).isSortedAccordingTo((a, b) -> Long.compare(b.count(), a.count()));
+        }
+    }
+
+    @Test
+    void heavyHittersReportEverythingWhenItFits() {
+        List<String> names = Arrays.asList("a", "b", null, "a", "c", "a", null);
+
+        List<Frequency<String>> top = names.stream()
+                .gather(FrequencyGatherers.heavyHitters(10, 2))
+                .toList();
+
+        assertThat(top).containsExactly(
+                new Frequency<>("a", 3, 0),
+                new Frequency<>(null, 2, 0));
+    }
+
+    @Test
+    void heavyHittersRejectInvalidK() {
+        assertThatIllegalArgumentException().isThrownBy(() -> FrequencyGatherers.heavyHitters(10, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> FrequencyGatherers.heavyHitters(10, 11));
+    }
+}
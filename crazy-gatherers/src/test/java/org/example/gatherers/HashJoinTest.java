@@ -0,0 +1,160 @@
+package org.example.gatherers;
+
+import org.example.utils.Account;
+import org.example.utils.AccountCodec;
+import org.example.utils.BinaryCodec;
+import org.example.utils.DataUtils;
+import org.example.utils.OrderDetails;
+import org.example.utils.OrderDetailsCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HashJoinTest {
+
+    record AccountOrder(OrderDetails order, Account account) {
+    }
+
+    private final List<Account> accounts = DataUtils.randomAccounts(2_000);
+
+    // three orders per account, and orders of 500 unknown accounts
+    private final List<OrderDetails> orders = LongStream.rangeClosed(1, 7_500)
+            .mapToObj(id -> new OrderDetails(id, (id - 1) % 2_500 + 1, "order " + id))
+            .toList();
+
+    private final HashJoin<OrderDetails, Account> join =
+            HashJoin.of(accounts::stream, OrderDetails::accountId, Account::id);
+
+    @Test
+    void innerJoinPairsMatchingKeysInProbeOrder() {
+        List<AccountOrder> joined = orders.stream()
+                .gather(join.inner(AccountOrder::new))
+                .toList();
+
+        assertThat(joined).containsExactlyElementsOf(expectedInner());
+    }
+
+    @Test
+    void leftJoinKeepsUnmatchedProbeElements() {
+        List<AccountOrder> joined = orders.stream()
+                .gather(join.left(AccountOrder::new))
+                .toList();
+
+        Map<Long, Account> byId = accounts.stream().collect(Collectors.toMap(Account::id, Function.identity()));
+        assertThat(joined).containsExactlyElementsOf(orders.stream()
+                .map(order -> new AccountOrder(order, byId.get(order.accountId())))
+                .toList());
+    }
+
+    @Test
+    void semiJoinPushesEachMatchingProbeElementOnce() {
+        List<Account> duplicated = Stream.concat(accounts.stream(), accounts.stream()).toList();
+
+        List<OrderDetails> joined = orders.stream()
+                .gather(HashJoin.<OrderDetails, Account>of(duplicated::stream, OrderDetails::accountId, Account::id).semi())
+                .toList();
+
+        assertThat(joined).containsExactlyElementsOf(orders.stream()
+                .filter(order -> order.accountId() <= 2_000)
+                .toList());
+    }
+
+    @Test
+    void duplicateBuildKeysMatchInBuildOrder() {
+        List<String> joined = Stream.of(1L, 2L)
+                .gather(HashJoin.<Long, String>of(() -> Stream.of("1a", "2a", "1b", "1c"), id -> id,
+                                row -> Long.parseLong(row.substring(0, 1)))
+                        .inner((id, row) -> id + ":" + row))
+                .toList();
+
+        assertThat(joined).containsExactly("1:1a", "1:1b", "1:1c", "2:2a");
+    }
+
+    @Test
+    void graceJoinMatchesInMemoryJoin(@TempDir Path directory) throws IOException {
+        HashJoin<OrderDetails, Account> spilling = join.spilling(OrderDetailsCodec.INSTANCE, AccountCodec.INSTANCE, 100, directory);
+
+        List<AccountOrder> inner = orders.stream().gather(spilling.inner(AccountOrder::new)).toList();
+        List<AccountOrder> left = orders.stream().gather(spilling.left(AccountOrder::new)).toList();
+        List<OrderDetails> semi = orders.stream().gather(spilling.semi()).toList();
+
+        assertThat(inner).containsExactlyInAnyOrderElementsOf(expectedInner());
+        assertThat(left).hasSize(orders.size()).containsAll(expectedInner());
+        assertThat(left).filteredOn(pair -> pair.account() == null).hasSize(1_500);
+        assertThat(semi).containsExactlyInAnyOrderElementsOf(orders.stream()
+                .filter(order -> order.accountId() <= 2_000)
+                .toList());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void graceJoinGivesUpSplittingASingleHotKey(@TempDir Path directory) {
+        List<String> joined = Stream.of(7L, 8L)
+                .gather(HashJoin.<Long, Long>of(() -> LongStream.range(0, 1_000).mapToObj(_ -> 7L), id -> id, row -> row)
+                        .spilling(BinaryCodec.longs(), BinaryCodec.longs(), 10, directory)
+                        .inner((id, row) -> id + "=" + row))
+                .toList();
+
+        assertThat(joined).hasSize(1_000).containsOnly("7=7");
+    }
+
+    @Test
+    void graceJoinStopsWhenDownstreamRejects(@TempDir Path directory) throws IOException {
+        List<AccountOrder> joined = orders.stream()
+                .gather(join.spilling(OrderDetailsCodec.INSTANCE, AccountCodec.INSTANCE, 100, directory)
+                        .inner(AccountOrder::new))
+                .limit(10)
+                .toList();
+
+        assertThat(joined).hasSize(10);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void graceJoinDeletesTheSpillFilesWhenTheJoinerFails(@TempDir Path directory) throws IOException {
+        // partition 0 of the build side stays on the heap, so the joiner already runs while integrating
+        HashJoin<Long, Long> spilling = HashJoin.<Long, Long>of(() -> LongStream.range(0, 1_000).boxed(), id -> id, row -> row)
+                .spilling(BinaryCodec.longs(), BinaryCodec.longs(), 100, directory);
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> LongStream.range(0, 1_000).boxed()
+                        .gather(spilling.<String>inner((_, _) -> {
+                            throw new IllegalStateException("joiner failed");
+                        }))
+                        .toList())
+                .withMessage("joiner failed");
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsInvalidBudget() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> join.spilling(OrderDetailsCodec.INSTANCE, AccountCodec.INSTANCE, 0));
+    }
+
+    private List<AccountOrder> expectedInner() {
+        Map<Long, Account> byId = accounts.stream().collect(Collectors.toMap(Account::id, Function.identity()));
+        return orders.stream()
+                .filter(order -> byId.containsKey(order.accountId()))
+                .map(order -> new AccountOrder(order, byId.get(order.accountId())))
+                .toList();
+    }
+}
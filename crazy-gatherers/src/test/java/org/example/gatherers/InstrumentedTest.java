@@ -0,0 +1,117 @@
+package org.example.gatherers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Gatherer;
+import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class InstrumentedTest {
+
+    @Test
+    void countsElementsInAndPushed() {
+        var instrumented = Instrumented.wrap(Gatherer.<Integer, Integer>of(
+                (_, element, downstream) -> element % 2 != 0 || downstream.push(element)));
+
+        List<Integer> result = IntStream.rangeClosed(1, 10).boxed()
+                .gather(instrumented)
+                .toList();
+
+        assertThat(result).containsExactly(2, 4, 6, 8, 10);
+        Instrumented.Metrics metrics = instrumented.metrics();
+        assertThat(metrics.elementsIn()).isEqualTo(10);
+        assertThat(metrics.elementsPushed()).isEqualTo(5);
+        assertThat(metrics.integratorStops()).isZero();
+        assertThat(metrics.firstRejection()).isNull();
+        assertThat(metrics.finisherCalls()).isEqualTo(1);
+        assertThat(metrics.integratorThreads()).containsExactly(Thread.currentThread().threadId());
+    }
+
+    @Test
+    void recordsDownstreamRejection() {
+        var instrumented = Instrumented.wrap(Gatherers.<Integer, Integer>scan(() -> 0, Integer::sum));
+
+        List<Integer> result = Stream.of(1, 2, 3, 4, 5)
+                .gather(instrumented)
+                .limit(2)
+                .toList();
+
+        assertThat(result).containsExactly(1, 3);
+        Instrumented.Metrics metrics = instrumented.metrics();
+        assertThat(metrics.elementsPushed()).isEqualTo(2);
+        assertThat(metrics.integratorStops()).isEqualTo(1);
+        assertThat(metrics.firstRejection()).isNotNull();
+    }
+
+    @Test
+    void keepsSequentialGathererSequential() {
+        var instrumented = Instrumented.wrap(Gatherers.<Integer>windowFixed(2));
+
+        assertThat(instrumented.combiner()).isSameAs(Gatherer.defaultCombiner());
+    }
+
+    @Test
+    void parallelGathererProducesSameResult() {
+        var instrumented = Instrumented.wrap(Gatherer.<Integer, Set<Integer>, Integer>of(
+                HashSet::new,
+                (state, element, _) -> {
+                    state.add(element % 10);
+                    return true;
+                },
+                (state1, state2) -> {
+                    state1.addAll(state2);
+                    return state1;
+                },
+                (state, downstream) -> state.forEach(downstream::push)
+        ));
+
+        List<Integer> result = IntStream.range(0, 100_000).parallel().boxed()
+                .gather(instrumented)
+                .toList();
+
+        assertThat(result).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        Instrumented.Metrics metrics = instrumented.metrics();
+        assertThat(metrics.elementsIn()).isEqualTo(100_000);
+        assertThat(metrics.elementsPushed()).isEqualTo(10);
+        assertThat(metrics.finisherCalls()).isEqualTo(1);
+        assertThat(metrics.integratorThreads()).isNotEmpty();
+    }
+
+    @Test
+    void countsUnnamedVirtualThreadsSeparately() throws InterruptedException {
+        var instrumented = Instrumented.wrap(Gatherers.<Integer>windowFixed(2));
+
+        List<Thread> threads = IntStream.range(0, 4)
+                .mapToObj(_ -> Thread.ofVirtual().start(() -> Stream.of(1, 2, 3).gather(instrumented).toList()))
+                .toList();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(instrumented.metrics().integratorThreads()).hasSize(4);
+        assertThat(instrumented.metrics().finisherThreads()).hasSize(4);
+    }
+
+    @Test
+    void metricsDoNotShareTheHistogram() {
+        var instrumented = Instrumented.wrap(Gatherers.<Integer>windowFixed(2), 1);
+        Stream.of(1, 2, 3).gather(instrumented).toList();
+        Instrumented.Metrics metrics = instrumented.metrics();
+
+        metrics.pushLatencyHistogram()[0] = Long.MAX_VALUE;
+
+        assertThat(metrics.pushLatencyHistogram()[0]).isNotEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void wrap_zeroSampleInterval_throws() {
+        assertThatThrownBy(() -> Instrumented.wrap(Gatherers.<Integer>windowFixed(2), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
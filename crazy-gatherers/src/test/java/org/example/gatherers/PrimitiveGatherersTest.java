@@ -0,0 +1,90 @@
+package org.example.gatherers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PrimitiveGatherersTest {
+
+    @Test
+    void collapseConsecutive() {
+        assertThat(PrimitiveGatherers.collapseConsecutive(IntStream.of(1, 1, 2, 2, 2, 3, 1, 1, 4)).toArray())
+                .containsExactly(1, 2, 3, 1, 4);
+        assertThat(PrimitiveGatherers.collapseConsecutive(LongStream.of(0, 0, 5, 5, 0)).toArray())
+                .containsExactly(0, 5, 0);
+        assertThat(PrimitiveGatherers.collapseConsecutive(IntStream.empty()).toArray()).isEmpty();
+    }
+
+    @Test
+    void increasingSequence() {
+        assertThat(PrimitiveGatherers.increasingSequence(IntStream.of(2, 1, 3, 4, 5, 4, 3, 2, 1)))
+                .containsExactly(new int[]{2}, new int[]{1, 3, 4, 5}, new int[]{4},
+                        new int[]{3}, new int[]{2}, new int[]{1});
+        assertThat(PrimitiveGatherers.increasingSequence(LongStream.rangeClosed(1, 40)))
+                .singleElement()
+                .isEqualTo(LongStream.rangeClosed(1, 40).toArray());
+    }
+
+    @Test
+    void every() {
+        assertThat(PrimitiveGatherers.every(IntStream.rangeClosed(1, 10), 3).toArray())
+                .containsExactly(3, 6, 9);
+        assertThat(PrimitiveGatherers.every(LongStream.rangeClosed(1, 4), 1).toArray())
+                .containsExactly(1, 2, 3, 4);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> PrimitiveGatherers.every(IntStream.empty(), 0));
+    }
+
+    @Test
+    void windowFixed() {
+        assertThat(PrimitiveGatherers.windowFixed(IntStream.rangeClosed(1, 7), 3))
+                .containsExactly(new int[]{1, 2, 3}, new int[]{4, 5, 6}, new int[]{7});
+        assertThat(PrimitiveGatherers.windowFixed(LongStream.rangeClosed(1, 4), 2))
+                .containsExactly(new long[]{1, 2}, new long[]{3, 4});
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> PrimitiveGatherers.windowFixed(IntStream.empty(), 0));
+    }
+
+    @Test
+    void windowSliding() {
+        assertThat(PrimitiveGatherers.windowSliding(IntStream.rangeClosed(1, 5), 3))
+                .containsExactly(new int[]{1, 2, 3}, new int[]{2, 3, 4}, new int[]{3, 4, 5});
+        assertThat(PrimitiveGatherers.windowSliding(LongStream.of(1, 2), 3))
+                .containsExactly(new long[]{1, 2});
+        assertThat(PrimitiveGatherers.windowSliding(IntStream.empty(), 3)).isEmpty();
+    }
+
+    @Test
+    void scanAndFold() {
+        assertThat(PrimitiveGatherers.scan(IntStream.of(1, 2, 3, 4), 0, Integer::sum).toArray())
+                .containsExactly(1, 3, 6, 10);
+        assertThat(PrimitiveGatherers.scan(LongStream.of(2, 3), 1, (a, b) -> a * b).toArray())
+                .containsExactly(2, 6);
+        // non-associative: folded strictly left to right
+        assertThat(PrimitiveGatherers.fold(IntStream.of(1, 2, 3), 0, (a, b) -> a * 10 + b))
+                .isEqualTo(123);
+        assertThat(PrimitiveGatherers.fold(LongStream.rangeClosed(1, 20), 1, (a, b) -> a * b))
+                .isEqualTo(2_432_902_008_176_640_000L);
+    }
+
+    @Test
+    void pullsLazilyAndClosesSource() {
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        IntStream source = IntStream.iterate(0, i -> i + 1)
+                .peek(_ -> pulled.incrementAndGet())
+                .onClose(() -> closed.set(true));
+
+        try (IntStream collapsed = PrimitiveGatherers.collapseConsecutive(source)) {
+            assertThat(collapsed.limit(5).toArray()).containsExactly(0, 1, 2, 3, 4);
+        }
+
+        assertThat(pulled).hasValueLessThan(10);
+        assertThat(closed).isTrue();
+    }
+}
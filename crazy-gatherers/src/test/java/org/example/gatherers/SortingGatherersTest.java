@@ -0,0 +1,176 @@
+package org.example.gatherers;
+
+import org.example.utils.Account;
+import org.example.utils.AccountCodec;
+import org.example.utils.BinaryCodec;
+import org.example.utils.DataUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SortingGatherersTest {
+
+    private static final Comparator<Account> RICHEST_FIRST = Comparator.comparing(Account::balance).reversed();
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3, 100, 10_000, 20_000})
+    void topKMatchesSortedLimit(int k) {
+        List<Account> accounts = DataUtils.randomAccounts(10_000);
+
+        List<Account> expected = accounts.stream().sorted(RICHEST_FIRST).limit(k).toList();
+
+        assertThat(accounts.stream().gather(SortingGatherers.topK(k, RICHEST_FIRST)).toList())
+                .containsExactlyElementsOf(expected);
+        assertThat(accounts.parallelStream().gather(SortingGatherers.topK(k, RICHEST_FIRST)).toList())
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void keepsEncounterOrderOfEqualElements() {
+        // only 10 distinct first names: every rank is a long run of ties
+        List<Account> accounts = DataUtils.randomAccounts(50_000);
+        Comparator<Account> byFirstName = Comparator.comparing(Account::firstName);
+
+        List<Account> expected = accounts.stream().sorted(byFirstName).limit(1_000).toList();
+
+        assertThat(accounts.parallelStream().gather(SortingGatherers.topK(1_000, byFirstName)).toList())
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void zeroStopsImmediately() {
+        AtomicInteger pulled = new AtomicInteger();
+
+        List<Integer> result = Stream.iterate(0, i -> i + 1)
+                .peek(_ -> pulled.incrementAndGet())
+                .gather(SortingGatherers.topK(0, Comparator.<Integer>naturalOrder()))
+                .toList();
+
+        assertThat(result).isEmpty();
+        assertThat(pulled).hasValue(1);
+    }
+
+    @Test
+    void honoursDownstreamRejection() {
+        List<Integer> result = IntStream.range(0, 1_000).boxed()
+                .gather(SortingGatherers.topK(10, Comparator.<Integer>reverseOrder()))
+                .limit(3)
+                .toList();
+
+        assertThat(result).containsExactly(999, 998, 997);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 1_000, 200_000})
+    void sortedMatchesStableStreamSorted(int count) {
+        List<Account> accounts = DataUtils.randomAccounts(count);
+        Comparator<Account> byLastName = Comparator.comparing(Account::lastName);
+        List<Account> expected = accounts.stream().sorted(byLastName).toList();
+
+        assertThat(accounts.stream().gather(SortingGatherers.sorted(byLastName)).toList())
+                .containsExactlyElementsOf(expected);
+        assertThat(accounts.parallelStream().gather(SortingGatherers.sorted(byLastName)).toList())
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void sortedInNaturalOrderStopsWhenDownstreamRejects() {
+        List<String> lastNames = DataUtils.randomAccounts(10_000).parallelStream()
+                .map(Account::lastName)
+                .gather(SortingGatherers.<String>sorted())
+                .limit(3)
+                .toList();
+
+        assertThat(lastNames).containsExactly("Anderson", "Anderson", "Anderson");
+    }
+
+    @Test
+    void externalSortMatchesStableSorted(@TempDir Path directory) throws IOException {
+        List<Account> accounts = DataUtils.randomAccounts(20_000);
+        Comparator<Account> byLastName = Comparator.comparing(Account::lastName);
+
+        List<Account> result = accounts.stream()
+                .gather(SortingGatherers.externalSorted(byLastName, AccountCodec.INSTANCE, 1_000, directory))
+                .toList();
+
+        assertThat(result).containsExactlyElementsOf(accounts.stream().sorted(byLastName).toList());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void externalSortStopsMergingWhenDownstreamRejects(@TempDir Path directory) throws IOException {
+        List<Integer> result = IntStream.range(0, 10_000).map(i -> 10_000 - i).boxed()
+                .gather(SortingGatherers.externalSorted(Comparator.<Integer>naturalOrder(), BinaryCodec.integers(), 100, directory))
+                .limit(5)
+                .toList();
+
+        assertThat(result).containsExactly(1, 2, 3, 4, 5);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void externalSortDeletesTheSpillFileWhenTheComparatorFails(@TempDir Path directory) throws IOException {
+        Comparator<Integer> failing = (left, right) -> {
+            if (left == 500 || right == 500) {
+                throw new IllegalStateException("comparator failed");
+            }
+            return Integer.compare(left, right);
+        };
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> IntStream.range(0, 1_000).boxed()
+                        .gather(SortingGatherers.externalSorted(failing, BinaryCodec.integers(), 100, directory))
+                        .toList())
+                .withMessage("comparator failed");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void externalSortHandlesRecordsLargerThanTheIoBuffer(@TempDir Path directory) {
+        List<String> large = IntStream.range(0, 20)
+                .mapToObj(i -> String.valueOf((char) ('z' - i)).repeat(100_000 + i))
+                .toList();
+
+        List<String> result = large.stream()
+                .gather(SortingGatherers.externalSorted(Comparator.<String>naturalOrder(), BinaryCodec.strings(), 3, directory))
+                .toList();
+
+        assertThat(result).containsExactlyElementsOf(large.stream().sorted().toList());
+    }
+
+    @Test
+    void externalSortWithinBudgetStaysInMemory(@TempDir Path directory) {
+        List<String> result = Stream.of("c", "a", "b")
+                .gather(SortingGatherers.externalSorted(Comparator.<String>naturalOrder(), BinaryCodec.strings(), 10, directory))
+                .toList();
+
+        assertThat(result).containsExactly("a", "b", "c");
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> SortingGatherers.topK(-1, Comparator.<Integer>naturalOrder()));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> SortingGatherers.externalSorted(Comparator.<Integer>naturalOrder(), BinaryCodec.integers(), 0));
+    }
+}
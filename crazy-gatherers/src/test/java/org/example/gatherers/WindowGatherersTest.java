@@ -0,0 +1,174 @@
+package org.example.gatherers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class WindowGatherersTest {
+
+    @ParameterizedTest
+    @CsvSource({"0, 3", "2, 3", "3, 3", "10, 3", "10, 1", "10, 10", "1000, 7"})
+    void slidingMatchesGatherers(int count, int size) {
+        List<List<Integer>> expected = IntStream.range(0, count).boxed()
+                .gather(Gatherers.windowSliding(size))
+                .toList();
+
+        List<List<Integer>> copied = IntStream.range(0, count).boxed()
+                .gather(WindowGatherers.<Integer>windowSliding(size).copying())
+                .toList();
+        List<List<Integer>> viewed = IntStream.range(0, count).boxed()
+                .gather(WindowGatherers.windowSliding(size))
+                .map(List::copyOf)
+                .toList();
+
+        assertThat(copied).isEqualTo(expected);
+        assertThat(viewed).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 3", "2, 3", "3, 3", "10, 3", "10, 1", "1000, 7"})
+    void fixedMatchesGatherers(int count, int size) {
+        List<List<Integer>> expected = IntStream.range(0, count).boxed()
+                .gather(Gatherers.windowFixed(size))
+                .toList();
+
+        List<List<Integer>> copied = IntStream.range(0, count).boxed()
+                .gather(WindowGatherers.<Integer>windowFixed(size).copying())
+                .toList();
+        List<List<Integer>> viewed = IntStream.range(0, count).boxed()
+                .gather(WindowGatherers.windowFixed(size))
+                .map(List::copyOf)
+                .toList();
+
+        assertThat(copied).isEqualTo(expected);
+        assertThat(viewed).isEqualTo(expected);
+    }
+
+    @Test
+    void viewsAreReusedAndReadOnly() {
+        List<List<String>> seen = new ArrayList<>();
+
+        Stream.of("a", "b", "c", "d")
+                .gather(WindowGatherers.windowSliding(2))
+                .forEach(window -> {
+                    assertThatExceptionOfType(UnsupportedOperationException.class)
+                            .isThrownBy(() -> window.add("x"));
+                    seen.add(window);
+                });
+
+        assertThat(seen).hasSize(3);
+        assertThat(seen.get(0)).isSameAs(seen.get(2));
+        assertThat(seen.get(2)).containsExactly("c", "d");
+    }
+
+    @Test
+    void staleIteratorFailsFast() {
+        List<Iterator<Integer>> iterators = new ArrayList<>();
+
+        Stream.of(1, 2, 3)
+                .gather(WindowGatherers.windowSliding(2))
+                .forEach(window -> {
+                    if (iterators.isEmpty()) {
+                        iterators.add(window.iterator());
+                    } else {
+                        assertThatExceptionOfType(ConcurrentModificationException.class)
+                                .isThrownBy(() -> iterators.getFirst().next());
+                    }
+                });
+    }
+
+    @Test
+    void copiesAreIndependent() {
+        List<List<Integer>> windows = Stream.of(1, 2, 3)
+                .gather(WindowGatherers.<Integer>windowSliding(2).copying())
+                .toList();
+
+        assertThat(windows).containsExactly(List.of(1, 2), List.of(2, 3));
+        assertThat(windows.get(0)).isNotSameAs(windows.get(1));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> windows.getFirst().set(0, 5));
+    }
+
+    @Test
+    void stopsWhenDownstreamRejects() {
+        List<List<Integer>> windows = Stream.iterate(0, i -> i + 1)
+                .gather(WindowGatherers.<Integer>windowFixed(3).copying())
+                .limit(2)
+                .toList();
+
+        assertThat(windows).containsExactly(List.of(0, 1, 2), List.of(3, 4, 5));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 3", "2, 3", "3, 3", "1000, 1", "1000, 7", "100000, 64", "100000, 100000", "99999, 1000"})
+    void parallelFixedMatchesSequential(int count, int size) {
+        List<List<Integer>> expected = IntStream.range(0, count).boxed()
+                .gather(Gatherers.windowFixed(size))
+                .toList();
+
+        List<List<Integer>> actual = IntStream.range(0, count).boxed()
+                .parallel()
+                .gather(WindowGatherers.windowFixed(size, Integer::longValue))
+                .toList();
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void parallelFixedRequiresConsecutivePositions() {
+        assertThatIllegalStateException().isThrownBy(() -> IntStream.range(0, 10_000).boxed()
+                .parallel()
+                .filter(i -> i != 5_000)
+                .gather(WindowGatherers.windowFixed(10, Integer::longValue))
+                .toList());
+        assertThatIllegalStateException().isThrownBy(() -> IntStream.rangeClosed(1, 10).boxed()
+                .gather(WindowGatherers.windowFixed(3, Integer::longValue))
+                .toList());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 3", "2, 3", "3, 3", "1000, 1", "1000, 2", "1000, 7", "100000, 64", "5000, 5000", "4999, 5000"})
+    void parallelSlidingMatchesSequential(int count, int size) {
+        List<List<Integer>> expected = IntStream.range(0, count).boxed()
+                .gather(Gatherers.windowSliding(size))
+                .toList();
+
+        List<List<Integer>> actual = IntStream.range(0, count).boxed()
+                .parallel()
+                .gather(WindowGatherers.<Integer, List<Integer>>windowSliding(size, List::copyOf))
+                .toList();
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void parallelSlidingMapsWindows() {
+        List<Integer> sums = IntStream.rangeClosed(1, 100_000).boxed()
+                .parallel()
+                .gather(WindowGatherers.windowSliding(3, (List<Integer> window) ->
+                        window.stream().mapToInt(Integer::intValue).sum()))
+                .toList();
+
+        assertThat(sums).hasSize(99_998);
+        assertThat(sums).startsWith(6, 9, 12).endsWith(299_997);
+        assertThat(sums).isSorted();
+    }
+
+    @Test
+    void rejectsNonPositiveSize() {
+        assertThatIllegalArgumentException().isThrownBy(() -> WindowGatherers.windowSliding(0));
+        assertThatIllegalArgumentException().isThrownBy(() -> WindowGatherers.windowFixed(-1));
+        assertThatIllegalArgumentException().isThrownBy(() -> WindowGatherers.windowFixed(0, Integer::longValue));
+        assertThatIllegalArgumentException().isThrownBy(() -> WindowGatherers.windowSliding(0, List::size));
+    }
+}
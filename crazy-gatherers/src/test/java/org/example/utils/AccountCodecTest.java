@@ -0,0 +1,35 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AccountCodecTest {
+
+    @Test
+    void roundTripsAccounts() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        for (Account account : DataUtils.randomAccounts(1_000)) {
+            buffer.clear();
+            AccountCodec.INSTANCE.write(account, buffer);
+            assertThat(AccountCodec.INSTANCE.read(buffer.flip())).isEqualTo(account);
+        }
+    }
+
+    @Test
+    void roundTripsNullFieldsAndPreciseBalances() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        Account sparse = new Account(null, "Zoë", null, null, LocalDate.of(1969, 7, 20), null, null,
+                new BigDecimal("-12345678901234567890.125"));
+
+        AccountCodec.INSTANCE.write(sparse, buffer);
+
+        assertThat(AccountCodec.INSTANCE.read(buffer.flip())).isEqualTo(sparse);
+        assertThat(buffer.remaining()).isZero();
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AccountSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsAccounts() throws IOException {
+        List<Account> accounts = DataUtils.randomAccounts(10_000);
+        Path file = directory.resolve("accounts.snap");
+
+        assertThat(AccountSnapshot.write(file, accounts)).isEqualTo(10_000);
+
+        try (OffHeapAccountStore store = AccountSnapshot.open(file)) {
+            assertThat(store.size()).isEqualTo(10_000);
+            assertThat(store.accounts()).containsExactlyElementsOf(accounts);
+            assertThat(store.cursor().moveTo(42).email()).isEqualTo(accounts.get(42).email());
+            assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> store.add(accounts.getFirst()));
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void accountSpliteratorSplitsOnRowBoundaries() throws IOException {
+        List<Account> accounts = DataUtils.randomAccounts(100_000);
+        Path file = directory.resolve("accounts.snap");
+        AccountSnapshot.write(file, accounts);
+
+        try (OffHeapAccountStore store = AccountSnapshot.open(file)) {
+            Spliterator<Account> spliterator = store.accountSpliterator();
+            Spliterator<Account> prefix = spliterator.trySplit();
+            assertThat(prefix.estimateSize()).isEqualTo(50_000);
+            assertThat(spliterator.estimateSize()).isEqualTo(50_000);
+            assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED)).isTrue();
+
+            assertThat(store.parallelStream()
+                    .filter(account -> account.gender() == Gender.FEMALE)
+                    .map(OffHeapAccountStore.Cursor::toAccount)
+                    .toList())
+                    .isEqualTo(accounts.stream().filter(account -> account.gender() == Gender.FEMALE).toList());
+        }
+    }
+
+    @Test
+    void emailsDoNotStraddleHeapChunks() throws IOException {
+        // 1 MiB + 1 byte emails: 15 fit in a 16 MiB chunk, the 16th starts the next one
+        List<Account> accounts = IntStream.range(0, 40)
+                .mapToObj(i -> {
+                    Account account = DataUtils.accounts().get(i % 6);
+                    return new Account((long) i, account.firstName(), account.lastName(),
+                            String.valueOf((char) ('a' + i % 26)).repeat((1 << 20) + 1),
+                            account.birthday(), account.gender(), account.creationDate(), account.balance());
+                })
+                .toList();
+        Path file = directory.resolve("accounts.snap");
+        AccountSnapshot.write(file, accounts);
+
+        try (OffHeapAccountStore store = AccountSnapshot.open(file)) {
+            assertThat(store.accounts()).containsExactlyElementsOf(accounts);
+        }
+    }
+
+    @Test
+    void emptySnapshot() throws IOException {
+        Path file = directory.resolve("accounts.snap");
+        AccountSnapshot.write(file, List.of());
+
+        try (OffHeapAccountStore store = AccountSnapshot.open(file)) {
+            assertThat(store.size()).isZero();
+            assertThat(store.accounts()).isEmpty();
+        }
+    }
+
+    @Test
+    void failedWriteKeepsThePreviousSnapshot() throws IOException {
+        Path file = directory.resolve("accounts.snap");
+        Path fresh = directory.resolve("fresh.snap");
+        List<Account> previous = DataUtils.randomAccounts(100);
+        AccountSnapshot.write(file, previous);
+        // fails after more than one buffer of rows has reached the file
+        Iterable<Account> failing = () -> Stream.concat(DataUtils.randomAccounts(50_000).stream(),
+                Stream.<Account>generate(() -> {
+                    throw new IllegalStateException("source failed");
+                })).iterator();
+
+        assertThatIllegalStateException().isThrownBy(() -> AccountSnapshot.write(file, failing)).withMessage("source failed");
+        assertThatIllegalStateException().isThrownBy(() -> AccountSnapshot.write(fresh, failing)).withMessage("source failed");
+
+        try (OffHeapAccountStore store = AccountSnapshot.open(file)) {
+            assertThat(store.accounts()).containsExactlyElementsOf(previous);
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotAccountSnapshots() throws IOException {
+        Path garbage = Files.write(directory.resolve("garbage.snap"), new byte[100]);
+        Path orders = directory.resolve("orders.snap");
+        OrderSnapshot.write(orders, List.of(new OrderDetails(1L, 1L, "some info")));
+
+        assertThatIOException().isThrownBy(() -> AccountSnapshot.open(garbage)).withMessageContaining("not a snapshot");
+        assertThatIOException().isThrownBy(() -> AccountSnapshot.open(orders)).withMessageContaining("another kind");
+    }
+}
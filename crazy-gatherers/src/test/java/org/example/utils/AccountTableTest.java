@@ -0,0 +1,83 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AccountTableTest {
+
+    @Test
+    void materializesTheSameAccounts() {
+        List<Account> accounts = DataUtils.randomAccounts(10_000);
+
+        AccountTable table = AccountTable.of(accounts);
+
+        assertThat(table.size()).isEqualTo(10_000);
+        assertThat(table.stream()).containsExactlyElementsOf(accounts);
+        assertThat(table.asList()).isEqualTo(accounts);
+        assertThat(table.names().size()).isEqualTo(19);
+    }
+
+    @Test
+    void readsSingleColumns() {
+        AccountTable table = AccountTable.of(DataUtils.accounts());
+
+        assertThat(table.id(1)).isEqualTo(2L);
+        assertThat(table.firstName(5)).isEqualTo("Alice");
+        assertThat(table.firstNameCode(5)).isEqualTo(table.firstNameCode(0));
+        assertThat(table.lastName(5)).isEqualTo("Taylor");
+        assertThat(table.email(5)).isEqualTo("alice.t@gmail.com");
+        assertThat(table.birthday(3)).isEqualTo(LocalDate.of(1988, 2, 28));
+        assertThat(table.gender(3)).isEqualTo(Gender.MALE);
+        assertThat(table.balanceCents(3)).isEqualTo(180_000);
+        assertThatIndexOutOfBoundsException().isThrownBy(() -> table.id(6));
+    }
+
+    @Test
+    void scansTheGenderBitset() {
+        List<Account> accounts = DataUtils.randomAccounts(1_000);
+        AccountTable table = AccountTable.of(accounts);
+
+        for (Gender gender : Gender.values()) {
+            assertThat(table.rowsWithGender(gender).boxed().toList())
+                    .isEqualTo(IntStream.range(0, accounts.size())
+                            .filter(row -> accounts.get(row).gender() == gender)
+                            .boxed()
+                            .toList());
+        }
+    }
+
+    @Test
+    void findsTheFirstRowBornOnOrBefore() {
+        AccountTable table = AccountTable.of(DataUtils.accounts());
+
+        assertThat(table.firstRowBornOnOrBefore(LocalDate.of(1989, 1, 1))).isEqualTo(1);
+        assertThat(table.firstRowBornOnOrBefore(LocalDate.of(1990, 1, 1))).isZero();
+        assertThat(table.firstRowBornOnOrBefore(LocalDate.of(1980, 1, 1))).isEqualTo(6);
+    }
+
+    @Test
+    void keepsCentsAndRejectsFractionsOfACent() {
+        Account account = DataUtils.accounts().getFirst();
+        Account withCents = new Account(account.id(), account.firstName(), account.lastName(), account.email(),
+                account.birthday(), account.gender(), account.creationDate(), new BigDecimal("10.05"));
+        Account withFraction = new Account(account.id(), account.firstName(), account.lastName(), account.email(),
+                account.birthday(), account.gender(), account.creationDate(), new BigDecimal("10.005"));
+
+        assertThat(AccountTable.of(List.of(withCents)).balance(0)).isEqualTo(new BigDecimal("10.05"));
+        assertThatExceptionOfType(ArithmeticException.class)
+                .isThrownBy(() -> AccountTable.of(List.of(withFraction)));
+    }
+
+    @Test
+    void takesFarFewerBytesThanRecords() {
+        AccountTable table = AccountTable.of(DataUtils.randomAccounts(100_000));
+
+        assertThat(table.sizeInBytes() / table.size()).isLessThan(80);
+    }
+}
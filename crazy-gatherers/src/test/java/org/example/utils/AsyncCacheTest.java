@@ -0,0 +1,183 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AsyncCacheTest {
+
+    @Test
+    void coalescesConcurrentRequestsForTheSameKey() throws Exception {
+        OrderService service = new OrderService(Duration.ofMillis(200));
+        AsyncCache<Long, OrderDetails> cache = new AsyncCache<>(100, Duration.ofMinutes(1), service::findOrder);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<OrderDetails>> requests = IntStream.range(0, 10)
+                    .mapToObj(_ -> executor.submit(() -> cache.get(7L)))
+                    .toList();
+            for (Future<OrderDetails> request : requests) {
+                assertThat(request.get().accountId()).isEqualTo(7L);
+            }
+        }
+
+        assertThat(service.calls()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+        assertThat(cache.stats().hits() + cache.stats().coalesced()).isEqualTo(9);
+    }
+
+    @Test
+    void servesRepeatedIdsFromMapConcurrent() {
+        OrderService service = new OrderService(Duration.ofMillis(50));
+        AsyncCache<Long, OrderDetails> cache = new AsyncCache<>(100, Duration.ofMinutes(1), service::findOrder);
+        List<Long> ids = LongStream.range(0, 500).map(i -> i % 20).boxed().toList();
+
+        List<OrderDetails> orders = ids.stream()
+                .gather(Gatherers.mapConcurrent(50, cache::get))
+                .toList();
+
+        assertThat(orders).extracting(OrderDetails::accountId).containsExactlyElementsOf(ids);
+        assertThat(service.calls()).isEqualTo(20);
+        assertThat(cache.stats().misses()).isEqualTo(20);
+        assertThat(cache.stats().hits() + cache.stats().coalesced()).isEqualTo(480);
+        assertThat(cache.stats().hitRate()).isEqualTo(0.96);
+    }
+
+    @Test
+    void expiresValuesAfterTheirTimeToLive() {
+        AtomicLong now = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        AsyncCache<String, Integer> cache = new AsyncCache<>(10, Duration.ofSeconds(10),
+                _ -> loads.incrementAndGet(), now::get);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertThat(cache.get("a")).isEqualTo(1);
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.get("a")).isEqualTo(2);
+
+        assertThat(cache.stats()).isEqualTo(new AsyncCache.Stats(1, 2, 0));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedKey() {
+        AtomicInteger loads = new AtomicInteger();
+        AsyncCache<String, Integer> cache = new AsyncCache<>(2, Duration.ofMinutes(1), _ -> loads.incrementAndGet());
+
+        cache.get("a");
+        cache.get("b");
+        cache.get("a");
+        cache.get("c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isEqualTo(4);
+    }
+
+    @Test
+    void neverEvictsAKeyThatIsStillLoading() {
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+        AsyncCache<String, String> cache = new AsyncCache<>(1, Duration.ofMinutes(1), key -> {
+            loads.computeIfAbsent(key, _ -> new AtomicInteger()).incrementAndGet();
+            if (key.equals("slow")) {
+                await(release);
+            }
+            return key.toUpperCase();
+        });
+
+        CompletableFuture<String> slow = cache.getAsync("slow");
+        assertThat(cache.get("a")).isEqualTo("A");
+        assertThat(cache.get("b")).isEqualTo("B");
+        CompletableFuture<String> again = cache.getAsync("slow");
+        release.countDown();
+
+        assertThat(slow.join()).isEqualTo("SLOW");
+        assertThat(again.join()).isEqualTo("SLOW");
+        assertThat(loads.get("slow")).hasValue(1);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void interruptingOneRequestDoesNotFailTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        AsyncCache<String, String> cache = new AsyncCache<>(10, Duration.ofMinutes(1), key -> {
+            loads.incrementAndGet();
+            await(release);
+            return key.toUpperCase();
+        });
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> cache.get("a"));
+            Future<String> second = executor.submit(() -> cache.get("a"));
+            while (cache.stats().requests() < 2) {
+                Thread.sleep(10);
+            }
+            first.cancel(true);
+            release.countDown();
+
+            assertThat(second.get()).isEqualTo("A");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get("a")).isEqualTo("A");
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncCache<String, String> cache = new AsyncCache<>(10, Duration.ofMinutes(1), key -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("order service down");
+            }
+            return key.toUpperCase();
+        });
+
+        assertThatIllegalStateException().isThrownBy(() -> cache.get("a")).withMessage("order service down");
+        assertThat(cache.get("a")).isEqualTo("A");
+        assertThat(cache.getAsync("a")).isCompletedWithValue("A");
+    }
+
+    @Test
+    void loadsAsynchronouslyOnAVirtualThread() throws Exception {
+        OrderService service = new OrderService(Duration.ofMillis(50));
+        AsyncCache<Long, OrderDetails> cache = new AsyncCache<>(10, Duration.ofMinutes(1), service::findOrder);
+
+        var first = cache.getAsync(1L);
+        var second = cache.getAsync(1L);
+
+        assertThat(first.get().accountId()).isEqualTo(1L);
+        assertThat(second.get()).isEqualTo(first.get());
+        assertThat(service.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new AsyncCache<String, String>(0, Duration.ofSeconds(1), String::trim));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new AsyncCache<String, String>(1, Duration.ZERO, String::trim));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
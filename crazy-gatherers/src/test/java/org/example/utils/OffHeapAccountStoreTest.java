@@ -0,0 +1,94 @@
+package org.example.utils;
+
+import org.example.gatherers.DistinctGatherers;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OffHeapAccountStoreTest {
+
+    @Test
+    void materializesTheSameAccounts() {
+        List<Account> accounts = DataUtils.randomAccounts(10_000);
+
+        try (OffHeapAccountStore store = OffHeapAccountStore.of(accounts)) {
+            assertThat(store.size()).isEqualTo(10_000);
+            assertThat(store.accounts()).containsExactlyElementsOf(accounts);
+            assertThat(store.account(42)).isEqualTo(accounts.get(42));
+        }
+    }
+
+    @Test
+    void rowsAre48Bytes() {
+        assertThat(OffHeapAccountStore.ROW.byteSize()).isEqualTo(48);
+    }
+
+    @Test
+    void cursorReadsFieldsWithoutMaterializing() {
+        try (OffHeapAccountStore store = OffHeapAccountStore.of(DataUtils.accounts())) {
+            OffHeapAccountStore.Cursor cursor = store.cursor().moveTo(5);
+
+            assertThat(cursor.id()).isEqualTo(6L);
+            assertThat(cursor.firstName()).isEqualTo("Alice");
+            assertThat(cursor.firstNameCode()).isEqualTo(store.cursor().moveTo(0).firstNameCode());
+            assertThat(cursor.email()).isEqualTo("alice.t@gmail.com");
+            assertThat(cursor.gender()).isEqualTo(Gender.FEMALE);
+            assertThat(cursor.balanceCents()).isEqualTo(130_000);
+            assertThatIndexOutOfBoundsException().isThrownBy(() -> cursor.moveTo(6));
+        }
+    }
+
+    @Test
+    void parallelStreamSplitsEvenlyAndMatchesSequential() {
+        List<Account> accounts = DataUtils.randomAccounts(100_000);
+
+        try (OffHeapAccountStore store = OffHeapAccountStore.of(accounts)) {
+            Spliterator<OffHeapAccountStore.Cursor> spliterator = store.spliterator();
+            Spliterator<OffHeapAccountStore.Cursor> prefix = spliterator.trySplit();
+            assertThat(prefix.estimateSize()).isEqualTo(50_000);
+            assertThat(spliterator.estimateSize()).isEqualTo(50_000);
+            assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED)).isTrue();
+
+            assertThat(store.parallelStream()
+                    .filter(account -> account.gender() == Gender.FEMALE)
+                    .mapToLong(OffHeapAccountStore.Cursor::id)
+                    .boxed()
+                    .toList())
+                    .isEqualTo(accounts.stream()
+                            .filter(account -> account.gender() == Gender.FEMALE)
+                            .map(Account::id)
+                            .toList());
+            assertThat(store.parallelStream()
+                    .collect(Collectors.summingLong(OffHeapAccountStore.Cursor::balanceCents)))
+                    .isEqualTo(accounts.stream().mapToLong(account -> AccountTable.cents(account.balance())).sum());
+        }
+    }
+
+    @Test
+    void feedsGathererPipelines() {
+        List<Account> accounts = DataUtils.randomAccounts(5_000);
+
+        try (OffHeapAccountStore store = OffHeapAccountStore.of(accounts)) {
+            List<String> firstNames = store.stream()
+                    .gather(DistinctGatherers.distinctBy(OffHeapAccountStore.Cursor::firstNameCode))
+                    .map(OffHeapAccountStore.Cursor::firstName)
+                    .toList();
+
+            assertThat(firstNames).isEqualTo(accounts.stream().map(Account::firstName).distinct().toList());
+        }
+    }
+
+    @Test
+    void closedStoreCannotBeRead() {
+        OffHeapAccountStore store = OffHeapAccountStore.of(DataUtils.accounts());
+        OffHeapAccountStore.Cursor cursor = store.cursor().moveTo(0);
+
+        store.close();
+
+        assertThatIllegalStateException().isThrownBy(cursor::id);
+    }
+}
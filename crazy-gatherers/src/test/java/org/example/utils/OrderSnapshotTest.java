@@ -0,0 +1,113 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderSnapshotTest {
+
+    @Test
+    void roundTripsOrders(@TempDir Path directory) throws IOException {
+        List<OrderDetails> orders = LongStream.range(0, 100_000)
+                .mapToObj(id -> new OrderDetails(id, id % 1_000, "info " + id % 7))
+                .toList();
+        Path file = directory.resolve("orders.snap");
+
+        assertThat(OrderSnapshot.write(file, orders)).isEqualTo(100_000);
+
+        try (OrderSnapshot snapshot = OrderSnapshot.open(file)) {
+            assertThat(snapshot.size()).isEqualTo(100_000);
+            assertThat(snapshot.order(42)).isEqualTo(orders.get(42));
+            assertThat(snapshot.stream()).containsExactlyElementsOf(orders);
+            assertThat(snapshot.parallelStream().toList()).isEqualTo(orders);
+            assertThatIndexOutOfBoundsException().isThrownBy(() -> snapshot.order(100_000));
+        }
+    }
+
+    @Test
+    void splitsOnRowBoundaries(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("orders.snap");
+        OrderSnapshot.write(file, LongStream.range(0, 11).mapToObj(id -> new OrderDetails(id, id, "x")).toList());
+
+        try (OrderSnapshot snapshot = OrderSnapshot.open(file)) {
+            Spliterator<OrderDetails> spliterator = snapshot.spliterator();
+            Spliterator<OrderDetails> prefix = spliterator.trySplit();
+
+            assertThat(prefix.estimateSize()).isEqualTo(5);
+            assertThat(spliterator.estimateSize()).isEqualTo(6);
+            assertThat(prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED)).isTrue();
+            assertThat(spliterator.tryAdvance(order -> assertThat(order.id()).isEqualTo(5L))).isTrue();
+        }
+    }
+
+    @Test
+    void failedAddLeavesTheTargetAsItWas(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("orders.snap");
+        List<OrderDetails> previous = List.of(new OrderDetails(1L, 1L, "some info"));
+        OrderSnapshot.write(file, previous);
+
+        try (OrderSnapshot.Writer writer = OrderSnapshot.writer(file)) {
+            writer.add(new OrderDetails(2L, 2L, "other info"));
+            assertThatNullPointerException().isThrownBy(() -> writer.add(new OrderDetails(3L, 3L, null)));
+        }
+
+        try (OrderSnapshot snapshot = OrderSnapshot.open(file)) {
+            assertThat(snapshot.stream()).containsExactlyElementsOf(previous);
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void abortedWriterCreatesNoFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("orders.snap");
+
+        try (OrderSnapshot.Writer writer = OrderSnapshot.writer(file)) {
+            writer.add(new OrderDetails(1L, 1L, "some info"));
+            writer.abort();
+        }
+
+        assertThat(file).doesNotExist();
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void storesRepeatedInfosOnceAndKeepsDistinctOnesOffTheHeap(@TempDir Path directory) throws IOException {
+        List<OrderDetails> repeated = LongStream.range(0, 100_000)
+                .mapToObj(id -> new OrderDetails(id, id, "info " + id % 7))
+                .toList();
+        // more distinct texts than the writer shares
+        List<OrderDetails> distinct = LongStream.range(0, 100_000)
+                .mapToObj(id -> new OrderDetails(id, id, "order " + id))
+                .toList();
+        Path repeatedFile = directory.resolve("repeated.snap");
+        Path distinctFile = directory.resolve("distinct.snap");
+
+        OrderSnapshot.write(repeatedFile, repeated);
+        OrderSnapshot.write(distinctFile, distinct);
+
+        assertThat(Files.size(repeatedFile)).isEqualTo(64 + 100_000 * OrderSnapshot.ROW.byteSize() + 7 * "info 0".length());
+        try (OrderSnapshot snapshot = OrderSnapshot.open(repeatedFile)) {
+            assertThat(snapshot.stream()).containsExactlyElementsOf(repeated);
+        }
+        try (OrderSnapshot snapshot = OrderSnapshot.open(distinctFile)) {
+            assertThat(snapshot.parallelStream().toList()).isEqualTo(distinct);
+        }
+    }
+
+    @Test
+    void rowsAre32Bytes() {
+        assertThat(OrderSnapshot.ROW.byteSize()).isEqualTo(32);
+    }
+}
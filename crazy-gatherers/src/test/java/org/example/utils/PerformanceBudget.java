@@ -0,0 +1,77 @@
+package org.example.utils;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/// Asserts that a query stays within a latency budget **relative to a JDK-stream baseline**
+/// measured on the same machine, in the same JVM, right next to it.
+///
+/// Absolute numbers differ from laptop to CI box, the ratio between a gatherer
+/// pipeline and its built-in equivalent does not, so budgets are portable.
+///
+/// Both sides are warmed up, then measured in interleaved rounds and compared
+/// by their median. All budgets can be scaled at once with
+/// `-Dperformance.budget.factor=<factor>` (e.g. `2.0` on a noisy shared runner).
+/// With `-Dperformance.calibrate=true` nothing is asserted: every query prints its
+/// measured ratio, to refresh the per-query budgets.
+public class PerformanceBudget {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 7;
+    private static final String FACTOR_PROPERTY = "performance.budget.factor";
+    private static final String CALIBRATE_PROPERTY = "performance.calibrate";
+
+    private static volatile int sink;
+
+    public static void assertWithinBudget(String query,
+                                          double maxSlowdown,
+                                          Supplier<?> candidate,
+                                          Supplier<?> baseline) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            consume(baseline.get());
+            consume(candidate.get());
+        }
+
+        long[] baselineNanos = new long[MEASURED_ROUNDS];
+        long[] candidateNanos = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            baselineNanos[i] = time(baseline);
+            candidateNanos[i] = time(candidate);
+        }
+
+        long baselineMedian = median(baselineNanos);
+        long candidateMedian = median(candidateNanos);
+        double slowdown = (double) candidateMedian / Math.max(1, baselineMedian);
+        if (Boolean.getBoolean(CALIBRATE_PROPERTY)) {
+            IO.println("%s: %.2fx of the JDK baseline (%.2f ms vs %.2f ms)"
+                    .formatted(query, slowdown, candidateMedian / 1e6, baselineMedian / 1e6));
+            return;
+        }
+        double allowed = maxSlowdown * Double.parseDouble(System.getProperty(FACTOR_PROPERTY, "1.0"));
+
+        assertThat(slowdown)
+                .as("%s took %.2f ms, %.2fx of the JDK baseline (%.2f ms), budget is %.2fx",
+                        query, candidateMedian / 1e6, slowdown, baselineMedian / 1e6, allowed)
+                .isLessThanOrEqualTo(allowed);
+    }
+
+    private static long time(Supplier<?> supplier) {
+        long start = System.nanoTime();
+        Object result = supplier.get();
+        long elapsed = System.nanoTime() - start;
+        consume(result);
+        return elapsed;
+    }
+
+    private static void consume(Object result) {
+        sink += result == null ? 0 : System.identityHashCode(result);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void neverForgetsAnAddedKey() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(0.01, 64L << 20, 1_000);
+
+        IntStream.range(0, 200_000).forEach(i -> filter.add("user" + i + "@example.com"));
+
+        assertThat(IntStream.range(0, 200_000)).allMatch(i -> filter.mightContain("user" + i + "@example.com"));
+        assertThat(IntStream.range(0, 200_000)).noneMatch(i -> filter.add("user" + i + "@example.com"));
+    }
+
+    @Test
+    void growsWhileStayingUnderTheFalsePositiveRate() {
+        double rate = 0.001;
+        ScalableBloomFilter filter = new ScalableBloomFilter(rate, 64L << 20, 1_000);
+
+        long added = IntStream.range(0, 500_000).filter(i -> filter.add("key-" + i)).count();
+        long falsePositives = IntStream.range(0, 500_000).filter(i -> filter.mightContain("other-" + i)).count();
+
+        assertThat(filter.stageCount()).isGreaterThan(1);
+        assertThat(500_000 - added).isLessThan((long) (500_000 * rate));
+        assertThat(falsePositives).isLessThan((long) (500_000 * rate));
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(rate);
+    }
+
+    @Test
+    void staysWithinTheMemoryCap() {
+        long maxBytes = 16 * 1024;
+        ScalableBloomFilter filter = new ScalableBloomFilter(0.01, maxBytes, 1_000);
+
+        IntStream.range(0, 1_000_000).forEach(i -> filter.add("key-" + i));
+
+        assertThat(filter.sizeInBytes()).isLessThanOrEqualTo(maxBytes);
+        assertThat(filter.expectedFalsePositiveRate()).isGreaterThan(0.01);
+    }
+
+    @Test
+    void reportsEachKeyAsNewOnlyOnceAcrossThreads() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(0.01, 1L << 20, 100);
+        AtomicInteger reportedNew = new AtomicInteger();
+
+        IntStream.range(0, 400_000).parallel()
+                .forEach(i -> {
+                    if (filter.add(i % 1_000)) {
+                        reportedNew.incrementAndGet();
+                    }
+                });
+
+        assertThat(reportedNew).hasValueLessThanOrEqualTo(1_000);
+        assertThat(filter.count()).isEqualTo(reportedNew.get());
+    }
+
+    @Test
+    void clearStartsOver() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(0.01, 1L << 20, 100);
+        IntStream.range(0, 10_000).forEach(filter::add);
+
+        filter.clear();
+
+        assertThat(filter.count()).isZero();
+        assertThat(filter.stageCount()).isOne();
+        assertThat(filter.add(42)).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ScalableBloomFilter(0, 1024));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ScalableBloomFilter(1, 1024));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ScalableBloomFilter(0.01, 4));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ScalableBloomFilter(0.01, 1024, 0));
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    @Test
+    void assignsDenseCodesInFirstSeenOrder() {
+        StringDictionary dictionary = new StringDictionary();
+
+        assertThat(dictionary.encode("Alice")).isZero();
+        assertThat(dictionary.encode("Bob")).isEqualTo(1);
+        assertThat(dictionary.encode("Alice")).isZero();
+
+        assertThat(dictionary.size()).isEqualTo(2);
+        assertThat(dictionary.decode(1)).isEqualTo("Bob");
+        assertThat(dictionary.code("Alice")).isZero();
+        assertThat(dictionary.code("Carol")).isEqualTo(-1);
+        assertThatIndexOutOfBoundsException().isThrownBy(() -> dictionary.decode(2));
+    }
+}
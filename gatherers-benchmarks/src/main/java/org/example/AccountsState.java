@@ -0,0 +1,50 @@
+package org.example;
+
+import org.example.utils.Account;
+import org.example.utils.DataUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/// # Accounts State
+///
+/// Shared JMH state for the gatherer benchmarks.
+///
+/// Every benchmark runs over the same generated [Account] list, so the
+/// gatherer and its built-in `Stream` baseline always see identical input.
+///
+/// | Parameter | Values |
+/// |-----------|--------|
+/// | `size` | `1_000` .. `10_000_000` accounts from [DataUtils#randomAccounts(int)] |
+/// | `parallel` | `false` → `stream()`, `true` → `parallelStream()` |
+///
+/// Override from the command line, for example:
+///
+/// ```text
+/// java -jar gatherers-benchmarks/target/benchmarks.jar -p size=1000000 -p parallel=false
+/// ```
+@State(Scope.Benchmark)
+public class AccountsState {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    public List<Account> accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accounts = DataUtils.randomAccounts(size);
+    }
+
+    public Stream<Account> stream() {
+        return parallel ? accounts.parallelStream() : accounts.stream();
+    }
+}
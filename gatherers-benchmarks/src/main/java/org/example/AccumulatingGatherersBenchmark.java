@@ -0,0 +1,92 @@
+package org.example;
+
+import org.example.utils.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Gatherers;
+
+/// # Accumulating Gatherers Benchmark
+///
+/// `fold`, `scan`, `windowFixed` and `windowSliding` implemented as gatherers
+/// (see [IntermediateMethods]) against the JDK [Gatherers] baseline.
+///
+/// All of them are sequential on both sides, so `parallel=true` only
+/// parallelizes the upstream part of the pipeline.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class AccumulatingGatherersBenchmark {
+
+    private static final int WINDOW_SIZE = 4;
+
+    @Benchmark
+    public List<BigDecimal> foldJdk(AccountsState state) {
+        return state.stream()
+                .gather(Gatherers.fold(() -> BigDecimal.ZERO, (BigDecimal total, Account account) -> total.add(account.balance())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<BigDecimal> foldGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.<Account, BigDecimal>fold(() -> BigDecimal.ZERO, (total, account) -> total.add(account.balance())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<BigDecimal> scanJdk(AccountsState state) {
+        return state.stream()
+                .gather(Gatherers.scan(() -> BigDecimal.ZERO, (BigDecimal total, Account account) -> total.add(account.balance())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<BigDecimal> scanGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.<Account, BigDecimal>scan(() -> BigDecimal.ZERO, (total, account) -> total.add(account.balance())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<List<String>> windowFixedJdk(AccountsState state) {
+        return state.stream()
+                .map(Account::email)
+                .gather(Gatherers.<String>windowFixed(WINDOW_SIZE))
+                .toList();
+    }
+
+    @Benchmark
+    public List<List<String>> windowFixedGatherer(AccountsState state) {
+        return state.stream()
+                .map(Account::email)
+                .gather(IntermediateMethods.<String>windowFixed(WINDOW_SIZE))
+                .toList();
+    }
+
+    @Benchmark
+    public List<List<String>> windowSlidingJdk(AccountsState state) {
+        return state.stream()
+                .map(Account::firstName)
+                .gather(Gatherers.<String>windowSliding(WINDOW_SIZE))
+                .toList();
+    }
+
+    @Benchmark
+    public List<List<String>> windowSlidingGatherer(AccountsState state) {
+        return state.stream()
+                .map(Account::firstName)
+                .gather(IntermediateMethods.<String>slidingWindow(WINDOW_SIZE))
+                .toList();
+    }
+}
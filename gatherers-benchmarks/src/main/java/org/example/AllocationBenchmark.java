@@ -0,0 +1,165 @@
+package org.example;
+
+import org.example.gatherers.DistinctGatherers;
+import org.example.gatherers.FrequencyGatherers;
+import org.example.gatherers.WindowGatherers;
+import org.example.utils.Account;
+import org.example.utils.DataUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// # Allocation Benchmark
+///
+/// Measures how much each gatherer **allocates per element**.
+///
+/// Every benchmark drains the stream into a [Blackhole] instead of `toList()`,
+/// so the only allocations left are the ones made by the gatherer itself
+/// (window copies, run copies, wrapper records, boxed state, ...).
+///
+/// Run it through [AllocationBudgetRunner], which attaches the JMH GC profiler,
+/// converts `gc.alloc.rate.norm` (bytes/op) into bytes/element and fails
+/// when a gatherer goes over its budget. It can also be run directly:
+///
+/// ```text
+/// java -jar gatherers-benchmarks/target/benchmarks.jar AllocationBenchmark -prof gc
+/// ```
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class AllocationBenchmark {
+
+    private static final int WINDOW_SIZE = 4;
+
+    private static final Comparator<Account> BY_BALANCE = Comparator.comparing(Account::balance);
+
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({"10000000"})
+        public int size;
+
+        public List<Account> accounts;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            accounts = DataUtils.randomAccounts(size);
+        }
+    }
+
+    @Benchmark
+    public void slidingWindow(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .map(Account::firstName)
+                .gather(IntermediateMethods.<String>slidingWindow(WINDOW_SIZE))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void slidingWindowView(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .map(Account::firstName)
+                .gather(WindowGatherers.<String>windowSliding(WINDOW_SIZE))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void windowFixed(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .map(Account::email)
+                .gather(IntermediateMethods.<String>windowFixed(WINDOW_SIZE))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void windowFixedView(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .map(Account::email)
+                .gather(WindowGatherers.<String>windowFixed(WINDOW_SIZE))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void increasingSequence(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .gather(IntermediateMethods.increasingSequence(BY_BALANCE))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void mapWithIndexImproved(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .map(Account::firstName)
+                .gather(H_MapWithIndex.<String, String>mapWithIndexImproved(String::trim))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void collapseConsecutive(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .map(Account::firstName)
+                .gather(IntermediateMethods.<String>collapseConsecutive())
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void every(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .gather(IntermediateMethods.<Account>every(WINDOW_SIZE))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void distinctBy(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .gather(IntermediateMethods.<Account, String>distinctBy(Account::firstName))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void distinctByStreaming(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .gather(DistinctGatherers.<Account, String>distinctBy(Account::firstName))
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void frequencyMap(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .map(Account::firstName)
+                .gather(EA_MoreParallel.<String>frequencyMap())
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void frequencies(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .map(Account::firstName)
+                .gather(FrequencyGatherers.<String>frequencies())
+                .forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void scan(Input input, Blackhole blackhole) {
+        input.accounts.stream()
+                .gather(IntermediateMethods.<Account, BigDecimal>scan(() -> BigDecimal.ZERO, (total, account) -> total.add(account.balance())))
+                .forEach(blackhole::consume);
+    }
+}
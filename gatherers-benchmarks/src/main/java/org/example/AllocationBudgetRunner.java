@@ -0,0 +1,146 @@
+package org.example;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Properties;
+import java.util.Set;
+
+/// # Allocation Budget Runner
+///
+/// Runs [AllocationBenchmark] with the JMH [GCProfiler] and prints, for every gatherer:
+///
+/// | Column | Source |
+/// |--------|--------|
+/// | **bytes/op** | `gc.alloc.rate.norm` |
+/// | **bytes/element** | `bytes/op` divided by the `size` parameter |
+/// | **gc count** | `gc.count` (all measurement iterations) |
+/// | **gc time** | `gc.time`, in ms |
+/// | **budget** | maximum bytes/element |
+///
+/// Budgets are read from `allocation-budgets.properties` on the classpath,
+/// or from the file given with `-Dallocation.budgets=<path>`.
+///
+/// The process exits with status `1` if any gatherer allocates more than its budget,
+/// has no budget, or a budget names no benchmark (e.g. after a rename), so it can gate
+/// a CI job:
+///
+/// ```text
+/// java -cp gatherers-benchmarks/target/benchmarks.jar org.example.AllocationBudgetRunner
+/// ```
+public class AllocationBudgetRunner {
+
+    private static final String BUDGETS_PROPERTY = "allocation.budgets";
+    private static final String BUDGETS_RESOURCE = "/allocation-budgets.properties";
+
+    static void main() throws RunnerException {
+        Properties budgets = loadBudgets();
+
+        Options options = new OptionsBuilder()
+                .include(AllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        IO.println("%-24s %14s %14s %10s %12s %10s  %s".formatted(
+                "gatherer", "bytes/op", "bytes/element", "gc count", "gc time ms", "budget", "status"));
+
+        int failures = 0;
+        Set<String> measured = new HashSet<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String name = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            measured.add(name);
+            long elements = Long.parseLong(result.getParams().getParam("size"));
+            Map<String, Result> secondary = result.getSecondaryResults();
+
+            double bytesPerOp = score(secondary, "gc.alloc.rate.norm");
+            double bytesPerElement = bytesPerOp / elements;
+            String budgetValue = budgets.getProperty(name);
+            String status;
+            if (budgetValue == null) {
+                status = "NO BUDGET";
+            } else if (bytesPerElement > Double.parseDouble(budgetValue)) {
+                status = "OVER BUDGET";
+            } else {
+                status = "OK";
+            }
+            if (!status.equals("OK")) {
+                failures++;
+            }
+
+            IO.println("%-24s %14.0f %14.2f %10.0f %12.0f %10s  %s".formatted(
+                    name,
+                    bytesPerOp,
+                    bytesPerElement,
+                    scoreOrZero(secondary, "gc.count"),
+                    scoreOrZero(secondary, "gc.time"),
+                    budgetValue == null ? "-" : budgetValue,
+                    status));
+        }
+        for (String name : budgets.stringPropertyNames()) {
+            if (!measured.contains(name)) {
+                IO.println("%-24s %14s %14s %10s %12s %10s  %s".formatted(
+                        name, "-", "-", "-", "-", budgets.getProperty(name), "NO BENCHMARK"));
+                failures++;
+            }
+        }
+
+        if (failures > 0) {
+            IO.println(failures + " gatherer(s) exceeded, lack or do not match an allocation budget");
+            System.exit(1);
+        }
+    }
+
+    /// A secondary result that every run must have.
+    ///
+    /// @throws IllegalStateException
+    ///   if there is none, e.g. because the JMH profiler labels changed
+    private static double score(Map<String, Result> secondary, String label) {
+        return find(secondary, label).orElseThrow(() -> new IllegalStateException(
+                "no '" + label + "' result among " + secondary.keySet()));
+    }
+
+    // the GC profiler leaves out gc.count and gc.time when no collection happened
+    private static double scoreOrZero(Map<String, Result> secondary, String label) {
+        return find(secondary, label).orElse(0);
+    }
+
+    /// Looks a secondary result up by suffix: depending on the JMH version
+    /// the GC profiler labels are prefixed with `·`.
+    private static OptionalDouble find(Map<String, Result> secondary, String label) {
+        return secondary.entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith(label))
+                .mapToDouble(entry -> entry.getValue().getScore())
+                .findFirst();
+    }
+
+    private static Properties loadBudgets() {
+        Properties budgets = new Properties();
+        String path = System.getProperty(BUDGETS_PROPERTY);
+        try (InputStream in = path != null
+                ? Files.newInputStream(Path.of(path))
+                : AllocationBudgetRunner.class.getResourceAsStream(BUDGETS_RESOURCE)) {
+            if (in != null) {
+                budgets.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return budgets;
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import org.example.gatherers.SortingGatherers;
+import org.example.utils.Account;
+import org.example.utils.AccountByFirstName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// # Buffering Gatherers Benchmark
+///
+/// `distinct`, `sorted`, `sorted(Comparator)` and `distinctBy` implemented as
+/// gatherers (see [IntermediateMethods]) against their built-in equivalents.
+///
+/// These gatherers buffer in a `HashSet` / `TreeSet` / `HashMap` and emit
+/// from the finisher, and all of them have a combiner, so they also run
+/// in parallel with `parallel=true`.
+///
+/// `sorted` is measured on emails, which are unique: the `TreeSet`-based
+/// gatherer drops equal elements, so on unique input both sides
+/// produce the same list.
+///
+/// `distinctBy` has no built-in operation. Its baseline is the pre-gatherer
+/// workaround from [AccountByFirstName].
+///
+/// `topK` ([SortingGatherers#topK(int, Comparator)]) keeps a bounded heap of the
+/// 100 richest accounts, against `sorted(...).limit(100)`.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class BufferingGatherersBenchmark {
+
+    private static final int TOP = 100;
+
+    private static final Comparator<Account> RICHEST_FIRST = Comparator.comparing(Account::balance).reversed();
+
+    @Benchmark
+    public List<String> distinctStream(AccountsState state) {
+        return state.stream()
+                .map(Account::firstName)
+                .distinct()
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> distinctGatherer(AccountsState state) {
+        return state.stream()
+                .map(Account::firstName)
+                .gather(IntermediateMethods.<String>distinct())
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> sortedStream(AccountsState state) {
+        return state.stream()
+                .map(Account::email)
+                .sorted()
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> sortedGatherer(AccountsState state) {
+        return state.stream()
+                .map(Account::email)
+                .gather(IntermediateMethods.<String>sorted())
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> sortedComparatorStream(AccountsState state) {
+        return state.stream()
+                .map(Account::email)
+                .sorted(Comparator.reverseOrder())
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> sortedComparatorGatherer(AccountsState state) {
+        return state.stream()
+                .map(Account::email)
+                .gather(IntermediateMethods.<String>sorted(Comparator.reverseOrder()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> distinctByStream(AccountsState state) {
+        return state.stream()
+                .map(AccountByFirstName::new)
+                .distinct()
+                .map(AccountByFirstName::account)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> distinctByGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.<Account, String>distinctBy(Account::firstName))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> topKStream(AccountsState state) {
+        return state.stream()
+                .sorted(RICHEST_FIRST)
+                .limit(TOP)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> topKGatherer(AccountsState state) {
+        return state.stream()
+                .gather(SortingGatherers.topK(TOP, RICHEST_FIRST))
+                .toList();
+    }
+}
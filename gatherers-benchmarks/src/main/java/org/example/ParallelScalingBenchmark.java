@@ -0,0 +1,193 @@
+package org.example;
+
+import org.example.gatherers.DistinctGatherers;
+import org.example.gatherers.FrequencyGatherers;
+import org.example.gatherers.SortingGatherers;
+import org.example.gatherers.WindowGatherers;
+import org.example.utils.Account;
+import org.example.utils.DataUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/// # Parallel Scaling Benchmark
+///
+/// Runs every combiner-based (parallel-capable) gatherer on `parallelStream()`
+/// inside a dedicated [ForkJoinPool] of the given `parallelism`, so the same
+/// pipeline can be measured on 1..N workers.
+///
+/// A parallel stream started from inside a `ForkJoinPool` task runs in that pool
+/// instead of the common pool, which is what pins the number of workers.
+///
+/// | Gatherer | Source |
+/// |----------|--------|
+/// | `distinctBy` | [IntermediateMethods], used by `CrazyGatherers.distinctByFirstName()` |
+/// | `unorderedDistinctBy` | [DistinctGatherers#unorderedDistinctBy(java.util.function.Function)] |
+/// | `approximateDistinctBy` | [DistinctGatherers#approximateDistinctBy(java.util.function.Function, double, long)], a sequential stage after the parallel source |
+/// | `distinct` | [IntermediateMethods] |
+/// | `sorted` / `sorted(Comparator)` | [IntermediateMethods] |
+/// | `mergeSorted` | [SortingGatherers#sorted(Comparator)] |
+/// | `frequencyMap` | [EA_MoreParallel] |
+/// | `frequencies` / `heavyHitters` | [FrequencyGatherers] |
+/// | `windowFixed` | [WindowGatherers#windowFixed(int, java.util.function.ToLongFunction)] |
+/// | `movingAverage` | [WindowGatherers#windowSliding(int, java.util.function.Function)] |
+///
+/// Use [ParallelScalingReport] to sweep parallelism and size and get speedup /
+/// efficiency curves.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ParallelScalingBenchmark {
+
+    private static final int WINDOW_SIZE = 500;
+
+    private static final int SLIDING_WINDOW_SIZE = 16;
+
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({"1", "2", "4", "8", "16", "32", "64"})
+        public int parallelism;
+
+        @Param({"10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        public List<Account> accounts;
+
+        private ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            accounts = DataUtils.randomAccounts(size);
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.close();
+        }
+
+        <R> R run(Supplier<R> pipeline) {
+            return pool.submit(pipeline::get).join();
+        }
+    }
+
+    @Benchmark
+    public List<Account> distinctBy(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .gather(IntermediateMethods.<Account, String>distinctBy(Account::firstName))
+                .toList());
+    }
+
+    @Benchmark
+    public List<Account> unorderedDistinctBy(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .gather(DistinctGatherers.unorderedDistinctBy(Account::firstName))
+                .toList());
+    }
+
+    @Benchmark
+    public List<Account> approximateDistinctBy(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .gather(DistinctGatherers.approximateDistinctBy(Account::email, 0.001, 64L << 20))
+                .toList());
+    }
+
+    @Benchmark
+    public List<String> distinct(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .map(Account::firstName)
+                .gather(IntermediateMethods.<String>distinct())
+                .toList());
+    }
+
+    @Benchmark
+    public List<String> sorted(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .map(Account::email)
+                .gather(IntermediateMethods.<String>sorted())
+                .toList());
+    }
+
+    @Benchmark
+    public List<String> sortedComparator(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .map(Account::email)
+                .gather(IntermediateMethods.<String>sorted(Comparator.reverseOrder()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<String> mergeSorted(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .map(Account::email)
+                .gather(SortingGatherers.<String>sorted(Comparator.reverseOrder()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<List<Account>> windowFixed(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .gather(WindowGatherers.windowFixed(WINDOW_SIZE, (Account account) -> account.id() - 1))
+                .toList());
+    }
+
+    @Benchmark
+    public List<Long> movingAverage(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .map(account -> account.balance().longValue())
+                .gather(WindowGatherers.windowSliding(SLIDING_WINDOW_SIZE, ParallelScalingBenchmark::average))
+                .toList());
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Long>> frequencyMap(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .map(Account::firstName)
+                .gather(EA_MoreParallel.<String>frequencyMap())
+                .toList());
+    }
+
+    @Benchmark
+    public List<FrequencyGatherers.Frequency<String>> frequencies(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .map(Account::firstName)
+                .gather(FrequencyGatherers.<String>frequencies())
+                .toList());
+    }
+
+    @Benchmark
+    public List<FrequencyGatherers.Frequency<String>> heavyHitters(Input input) {
+        return input.run(() -> input.accounts.parallelStream()
+                .map(Account::email)
+                .gather(FrequencyGatherers.<String>heavyHitters(1_000, 10))
+                .toList());
+    }
+
+    private static long average(List<Long> window) {
+        long sum = 0;
+        for (int i = 0; i < window.size(); i++) {
+            sum += window.get(i);
+        }
+        return sum / window.size();
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/// # Parallel Scaling Report
+///
+/// Sweeps [ParallelScalingBenchmark] over `ForkJoinPool` parallelism `1..N`
+/// and input sizes `1e4..1e8`, then reports how each gatherer scales.
+///
+/// For every gatherer and size:
+///
+/// - **speedup** = `time(parallelism = 1) / time(parallelism = p)`
+/// - **efficiency** = `speedup / p`
+///
+/// An efficiency that drops quickly while the size grows is the sign that the
+/// combiner (merging of partial states) dominates.
+///
+/// The full result is written as CSV, and a summary table of speedups is printed.
+///
+/// | System property | Default |
+/// |-----------------|---------|
+/// | `parallelism` | `1,2,4,...` up to the number of available processors |
+/// | `sizes` | `10000,100000,1000000,10000000,100000000` |
+/// | `heap` | `64g` (the `1e8` point needs ~25 GB for the accounts alone) |
+/// | `out` | `parallel-scaling.csv` |
+///
+/// ```text
+/// java -Dsizes=10000,1000000 -Dheap=8g -cp gatherers-benchmarks/target/benchmarks.jar org.example.ParallelScalingReport
+/// ```
+public class ParallelScalingReport {
+
+    static void main() throws RunnerException {
+        String[] parallelism = System.getProperty("parallelism", defaultParallelism()).split(",");
+        String[] sizes = System.getProperty("sizes", "10000,100000,1000000,10000000,100000000").split(",");
+        String heap = System.getProperty("heap", "64g");
+        Path out = Path.of(System.getProperty("out", "parallel-scaling.csv"));
+
+        Options options = new OptionsBuilder()
+                .include(ParallelScalingBenchmark.class.getSimpleName())
+                .param("parallelism", parallelism)
+                .param("size", sizes)
+                .jvmArgsAppend("-Xms" + heap, "-Xmx" + heap)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        // benchmark -> size -> parallelism -> ms/op
+        Map<String, Map<Integer, Map<Integer, Double>>> scores = new TreeMap<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            scores.computeIfAbsent(benchmark.substring(benchmark.lastIndexOf('.') + 1), _ -> new TreeMap<>())
+                    .computeIfAbsent(Integer.parseInt(result.getParams().getParam("size")), _ -> new TreeMap<>())
+                    .put(Integer.parseInt(result.getParams().getParam("parallelism")), result.getPrimaryResult().getScore());
+        }
+
+        writeCsv(out, scores);
+        printSummary(scores);
+        IO.println("CSV written to " + out.toAbsolutePath());
+    }
+
+    private static void writeCsv(Path out, Map<String, Map<Integer, Map<Integer, Double>>> scores) {
+        List<String> lines = new ArrayList<>();
+        lines.add("benchmark,size,parallelism,ms_per_op,speedup,efficiency");
+        scores.forEach((benchmark, bySize) -> bySize.forEach((size, byParallelism) -> {
+            Double baseline = byParallelism.get(1);
+            byParallelism.forEach((parallelism, score) -> {
+                double speedup = baseline == null ? Double.NaN : baseline / score;
+                lines.add("%s,%d,%d,%.3f,%.3f,%.3f".formatted(
+                        benchmark, size, parallelism, score, speedup, speedup / parallelism));
+            });
+        }));
+        try {
+            Files.write(out, lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void printSummary(Map<String, Map<Integer, Map<Integer, Double>>> scores) {
+        TreeSet<Integer> columns = new TreeSet<>();
+        scores.values().forEach(bySize -> bySize.values().forEach(byParallelism -> columns.addAll(byParallelism.keySet())));
+
+        StringBuilder header = new StringBuilder("%-18s %12s".formatted("gatherer", "size"));
+        columns.forEach(parallelism -> header.append("%9s".formatted("p=" + parallelism)));
+        IO.println(header);
+
+        scores.forEach((benchmark, bySize) -> bySize.forEach((size, byParallelism) -> {
+            Double baseline = byParallelism.get(1);
+            StringBuilder row = new StringBuilder("%-18s %12d".formatted(benchmark, size));
+            columns.forEach(parallelism -> {
+                Double score = byParallelism.get(parallelism);
+                row.append(score == null || baseline == null
+                        ? "%9s".formatted("-")
+                        : "%8.2fx".formatted(baseline / score));
+            });
+            IO.println(row);
+        }));
+    }
+
+    private static String defaultParallelism() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] powersOfTwo = IntStream.iterate(1, p -> p <= cores, p -> p * 2).toArray();
+        int[] levels = powersOfTwo[powersOfTwo.length - 1] == cores
+                ? powersOfTwo
+                : IntStream.concat(Arrays.stream(powersOfTwo), IntStream.of(cores)).toArray();
+        return String.join(",", Arrays.stream(levels).mapToObj(String::valueOf).toList());
+    }
+}
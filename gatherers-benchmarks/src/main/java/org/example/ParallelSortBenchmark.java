@@ -0,0 +1,73 @@
+package org.example;
+
+import org.example.gatherers.SortingGatherers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/// # Parallel Sort Benchmark
+///
+/// [SortingGatherers#sorted(Comparator)] against `Stream.sorted(comparator)` on
+/// 50 000 000 random `Integer`s, sequential and parallel.
+///
+/// The sequential `TreeSet` gatherer from [IntermediateMethods] is left out:
+/// it drops duplicates, which random integers have plenty of.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms16g", "-Xmx16g"})
+public class ParallelSortBenchmark {
+
+    private static final Comparator<Integer> DESCENDING = Comparator.reverseOrder();
+
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({"50000000"})
+        public int size;
+
+        @Param({"false", "true"})
+        public boolean parallel;
+
+        public List<Integer> numbers;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            numbers = ThreadLocalRandom.current().ints(size).boxed().toList();
+        }
+
+        Stream<Integer> stream() {
+            return parallel ? numbers.parallelStream() : numbers.stream();
+        }
+    }
+
+    @Benchmark
+    public List<Integer> sortedStream(Input input) {
+        return input.stream()
+                .sorted(DESCENDING)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Integer> sortedGatherer(Input input) {
+        return input.stream()
+                .gather(SortingGatherers.sorted(DESCENDING))
+                .toList();
+    }
+}
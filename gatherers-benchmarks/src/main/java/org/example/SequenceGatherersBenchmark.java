@@ -0,0 +1,99 @@
+package org.example;
+
+import org.example.utils.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/// # Sequence Gatherers Benchmark
+///
+/// `increasingSequence`, `every` and `collapseConsecutive` implemented as
+/// gatherers (see [IntermediateMethods]).
+///
+/// There is no built-in `Stream` operation for these, so the baseline is the
+/// index-based pipeline one would write without gatherers:
+/// `IntStream.range(...)` over the account list, looking at neighbouring
+/// positions. The index-based version parallelizes with `parallel=true`,
+/// while the gatherers are sequential.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SequenceGatherersBenchmark {
+
+    private static final int STEP = 3;
+
+    private static final Comparator<Account> BY_BALANCE = Comparator.comparing(Account::balance);
+
+    @Benchmark
+    public List<List<Account>> increasingSequenceStream(AccountsState state) {
+        List<Account> accounts = state.accounts;
+        int[] starts = indices(state)
+                .filter(i -> i == 0 || BY_BALANCE.compare(accounts.get(i), accounts.get(i - 1)) <= 0)
+                .toArray();
+        return indices(state, starts.length)
+                .mapToObj(i -> List.copyOf(accounts.subList(
+                        starts[i],
+                        i + 1 < starts.length ? starts[i + 1] : accounts.size())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<List<Account>> increasingSequenceGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.increasingSequence(BY_BALANCE))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> everyStream(AccountsState state) {
+        List<Account> accounts = state.accounts;
+        return indices(state)
+                .filter(i -> (i + 1) % STEP == 0)
+                .mapToObj(accounts::get)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> everyGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.<Account>every(STEP))
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> collapseConsecutiveStream(AccountsState state) {
+        List<Account> accounts = state.accounts;
+        return indices(state)
+                .filter(i -> i == 0 || !accounts.get(i).firstName().equals(accounts.get(i - 1).firstName()))
+                .mapToObj(i -> accounts.get(i).firstName())
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> collapseConsecutiveGatherer(AccountsState state) {
+        return state.stream()
+                .map(Account::firstName)
+                .gather(IntermediateMethods.<String>collapseConsecutive())
+                .toList();
+    }
+
+    private static IntStream indices(AccountsState state) {
+        return indices(state, state.accounts.size());
+    }
+
+    private static IntStream indices(AccountsState state, int size) {
+        IntStream range = IntStream.range(0, size);
+        return state.parallel ? range.parallel() : range;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import org.example.utils.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// # Short-Circuit Gatherers Benchmark
+///
+/// `limit`, `skip`, `takeWhile` and `dropWhile` implemented as gatherers
+/// (see [IntermediateMethods]) against the built-in [java.util.stream.Stream] operations.
+///
+/// The cut-off is always placed in the middle of the input, so both
+/// halves of the interrupting logic are exercised.
+///
+/// Note: the gatherer versions are sequential (`Gatherer.ofSequential(...)`),
+/// so with `parallel=true` they act as a parallelism barrier while the
+/// built-in operations do not.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ShortCircuitGatherersBenchmark {
+
+    @Benchmark
+    public List<Account> limitStream(AccountsState state) {
+        return state.stream()
+                .limit(state.size / 2)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> limitGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.<Account>limit(state.size / 2))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> skipStream(AccountsState state) {
+        return state.stream()
+                .skip(state.size / 2)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> skipGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.<Account>skip(state.size / 2))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> takeWhileStream(AccountsState state) {
+        long half = state.size / 2;
+        return state.stream()
+                .takeWhile(account -> account.id() <= half)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> takeWhileGatherer(AccountsState state) {
+        long half = state.size / 2;
+        return state.stream()
+                .gather(IntermediateMethods.<Account>takeWhile(account -> account.id() <= half))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> dropWhileStream(AccountsState state) {
+        long half = state.size / 2;
+        return state.stream()
+                .dropWhile(account -> account.id() <= half)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> dropWhileGatherer(AccountsState state) {
+        long half = state.size / 2;
+        return state.stream()
+                .gather(IntermediateMethods.<Account>dropWhile(account -> account.id() <= half))
+                .toList();
+    }
+}
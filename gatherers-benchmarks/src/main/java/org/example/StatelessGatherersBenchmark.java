@@ -0,0 +1,73 @@
+package org.example;
+
+import org.example.utils.Account;
+import org.example.utils.Gender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// # Stateless Gatherers Benchmark
+///
+/// `filter`, `map` and `flatMap` implemented as gatherers
+/// (see [IntermediateMethods]) against the built-in [java.util.stream.Stream] operations.
+///
+/// Each pair shares the same terminal operation (`toList()`), so the
+/// difference in ops/s is the cost of going through the gatherer.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class StatelessGatherersBenchmark {
+
+    @Benchmark
+    public List<Account> filterStream(AccountsState state) {
+        return state.stream()
+                .filter(account -> account.gender() == Gender.FEMALE)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Account> filterGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.<Account>filter(account -> account.gender() == Gender.FEMALE))
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> mapStream(AccountsState state) {
+        return state.stream()
+                .map(Account::firstName)
+                .map(String::toUpperCase)
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> mapGatherer(AccountsState state) {
+        return state.stream()
+                .map(Account::firstName)
+                .gather(IntermediateMethods.<String>map(String::toUpperCase))
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> flatMapStream(AccountsState state) {
+        return state.stream()
+                .flatMap(account -> account.firstName().lines())
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> flatMapGatherer(AccountsState state) {
+        return state.stream()
+                .gather(IntermediateMethods.<Account, String>flatMap(account -> account.firstName().lines()))
+                .toList();
+    }
+}
@@ -33,7 +33,7 @@ public class EA_MoreParallel {
 
     }
 
-    private static <T>Gatherer<T, ?, Map.Entry<T, Long>> frequencyMap() {
+    static <T>Gatherer<T, ?, Map.Entry<T, Long>> frequencyMap() {
         class Counter {
             long count = 0;
         }
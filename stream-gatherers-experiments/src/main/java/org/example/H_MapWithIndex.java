@@ -51,7 +51,7 @@ public class H_MapWithIndex {
         );
     }
 
-    private static <T, R>Gatherer<T, ?, ValueWithIndex<R>> mapWithIndexImproved(Function<T, R> function) {
+    static <T, R>Gatherer<T, ?, ValueWithIndex<R>> mapWithIndexImproved(Function<T, R> function) {
         return Gatherer.ofSequential(
                 Index::new,
                 (state, element, downstream) -> {
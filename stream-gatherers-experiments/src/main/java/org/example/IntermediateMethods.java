@@ -3,10 +3,12 @@ package org.example;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Gatherer;
 import java.util.stream.Stream;
 
@@ -140,10 +142,13 @@ public class IntermediateMethods {
 
     }
 
-    private static <T>Gatherer<T, ?, T> distinct() {
+    static <T>Gatherer<T, ?, T> distinct() {
         return Gatherer.of(
                 HashSet::new,
-                ((state, element, downstream) -> state.add(element)),
+                ((state, element, downstream) -> {
+                    state.add(element);
+                    return true;
+                }),
                 (set1, set2) -> {
                     set1.addAll(set2);
                     return set1;
@@ -158,7 +163,7 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T> Gatherer<T, ?, T> filter(Predicate<T> predicate) {
+    static <T> Gatherer<T, ?, T> filter(Predicate<T> predicate) {
         return Gatherer.of(Gatherer.Integrator.ofGreedy(
                 (_, element, downstream) -> {
                     if (predicate.test(element)) {
@@ -169,13 +174,13 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T>Gatherer<T, ?, T> map(Function<T, T> function) {
+    static <T>Gatherer<T, ?, T> map(Function<T, T> function) {
         return Gatherer.of(
                 ((_, element, downstream) -> downstream.push(function.apply(element)))
         );
     }
 
-    private static <T>Gatherer<T, ?, T> dropWhile(Predicate<T> predicate) {
+    static <T>Gatherer<T, ?, T> dropWhile(Predicate<T> predicate) {
         class Gate {
             boolean open = false;
         }
@@ -193,7 +198,7 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T extends Comparable<T>> Gatherer<T, ?, T> sorted() {
+    static <T extends Comparable<T>> Gatherer<T, ?, T> sorted() {
         return Gatherer.of(
                 () -> new TreeSet<T>(),
                 ((state, element, _) -> {
@@ -213,7 +218,7 @@ public class IntermediateMethods {
                 });
     }
 
-    private static <T>Gatherer<T, ?, T> sorted(Comparator<? super T> comparator) {
+    static <T>Gatherer<T, ?, T> sorted(Comparator<? super T> comparator) {
         return Gatherer.of(
                 () -> new TreeSet<T>(comparator),
                 ((state, element, _) -> {
@@ -228,7 +233,7 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T>Gatherer<T, ?, T> takeWhile(Predicate<T> predicate) {
+    static <T>Gatherer<T, ?, T> takeWhile(Predicate<T> predicate) {
         return Gatherer.ofSequential(
                 () -> new Object() {boolean open = true; },
                 ((state, element, downstream) -> {
@@ -244,7 +249,7 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T> Gatherer<? super T, ?, T> skip(long n) {
+    static <T> Gatherer<? super T, ?, T> skip(long n) {
         class Count {
             private long count = 0;
         }
@@ -259,7 +264,7 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T>Gatherer<? super T, ?, T> limit(long maxSize) {
+    static <T>Gatherer<? super T, ?, T> limit(long maxSize) {
         class Count {
             long count = 0;
         }
@@ -285,14 +290,14 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T>Gatherer<T, ?, T> peek(Consumer<T> consumer) {
+    static <T>Gatherer<T, ?, T> peek(Consumer<T> consumer) {
         return Gatherer.ofSequential((_, element, downstream) -> {
             consumer.accept(element);
             return downstream.push(element);
         });
     }
 
-    private static <T,R>Gatherer<T, ?, R> flatMap(Function<T, Stream<R>> function) {
+    static <T,R>Gatherer<T, ?, R> flatMap(Function<T, Stream<R>> function) {
         return Gatherer.ofSequential((_, element, downstream) -> {
             Stream<R> result = function.apply(element);
             result.forEach(downstream::push);
@@ -300,7 +305,34 @@ public class IntermediateMethods {
         });
     }
 
-    private static <T> Gatherer<T, ?, List<T>> increasingSequence(Comparator<T> comparator) {
+    static <T, R> Gatherer<T, ?, R> fold(Supplier<R> initial, BiFunction<R, ? super T, R> folder) {
+        class Accumulator {
+            R value = initial.get();
+        }
+        return Gatherer.ofSequential(
+                Accumulator::new,
+                ((state, element, _) -> {
+                    state.value = folder.apply(state.value, element);
+                    return true;
+                }),
+                (state, downstream) -> downstream.push(state.value)
+        );
+    }
+
+    static <T, R> Gatherer<T, ?, R> scan(Supplier<R> initial, BiFunction<R, ? super T, R> scanner) {
+        class Accumulator {
+            R value = initial.get();
+        }
+        return Gatherer.ofSequential(
+                Accumulator::new,
+                ((state, element, downstream) -> {
+                    state.value = scanner.apply(state.value, element);
+                    return downstream.push(state.value);
+                })
+        );
+    }
+
+    static <T> Gatherer<T, ?, List<T>> increasingSequence(Comparator<T> comparator) {
         return Gatherer.ofSequential(
                 ()-> new ArrayList<T>(),
                 ((state, element, downstream) -> {
@@ -325,8 +357,31 @@ public class IntermediateMethods {
     }
 
 
+    static <T> Gatherer<T, ?, List<T>> windowFixed(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("window size must be positive");
+        }
+        return Gatherer.ofSequential(
+                () -> new ArrayList<T>(size),
+                ((window, element, downstream) -> {
+                    window.add(element);
+                    if (window.size() == size) {
+                        var emit = List.copyOf(window);
+                        window.clear();
+                        return downstream.push(emit);
+                    }
+                    return true;
+                }),
+                (window, downstream) -> {
+                    if (!window.isEmpty() && !downstream.isRejecting()) {
+                        downstream.push(List.copyOf(window));
+                    }
+                }
+        );
+    }
+
     // "Alex", "Maria", "John", "Sophie", "Daniel", "Elena", "Michael", "Anna", "Thomas", "Olivia"
-    private static <T> Gatherer<T, ?, List<T>> slidingWindow(int size) {
+    static <T> Gatherer<T, ?, List<T>> slidingWindow(int size) {
         return Gatherer.ofSequential(
                 () -> new ArrayDeque<T>() {},
                 ((queue, element, downstream) -> {
@@ -350,7 +405,7 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T, K> Gatherer<T, ?, T> distinctBy(Function<? super T, ? extends K> keyExtractor) {
+    static <T, K> Gatherer<T, ?, T> distinctBy(Function<? super T, ? extends K> keyExtractor) {
         return Gatherer.of(
                 HashMap<K, T>::new, // state: Map<K, T> to remember first occurrence
                 (state, element, downstream) -> {
@@ -377,7 +432,7 @@ public class IntermediateMethods {
     // var numbers = List.of(1, 1, 2, 2, 2, 3, 1, 1, 4);
     // Expected output:
     // [1, 2, 3, 1, 4]
-    private static <T> Gatherer<T, ?, T> collapseConsecutive() {
+    static <T> Gatherer<T, ?, T> collapseConsecutive() {
         return Gatherer.ofSequential(
                 () -> new AtomicReference<T>(),
                 ((state, element, downstream) -> {
@@ -391,7 +446,7 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T> Gatherer<T, ?, T> collapseConsecutive(BiPredicate<T, T> equals) {
+    static <T> Gatherer<T, ?, T> collapseConsecutive(BiPredicate<T, T> equals) {
         return Gatherer.ofSequential(
                 AtomicReference<T>::new,
                 (state, element, downstream) -> {
@@ -405,7 +460,7 @@ public class IntermediateMethods {
         );
     }
 
-    private static <T> Gatherer<T, ?, T> every(int step) {
+    static <T> Gatherer<T, ?, T> every(int step) {
         if (step == 0) {
             throw new IllegalArgumentException("step value can't be zero");
         }
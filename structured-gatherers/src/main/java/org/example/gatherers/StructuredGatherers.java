@@ -0,0 +1,180 @@
+package org.example.gatherers;
+
+import org.example.utils.Futures;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Gatherer;
+
+/// # StructuredGatherers
+///
+/// Gatherers that fan out several remote lookups per element with
+/// [StructuredTaskScope], a preview API in Java 25.
+///
+/// Lives in its own `structured-gatherers` module, the only one compiled and tested
+/// with `--enable-preview`: preview class files only load on a JVM started with that
+/// flag, so [ConcurrentGatherers] and everything depending on `crazy-gatherers`
+/// (such as the benchmarks) stay free of it.
+public final class StructuredGatherers {
+
+    private StructuredGatherers() {
+    }
+
+    /// Forks the lookups of one element; see [#enrichConcurrent(int, Enricher)].
+    public interface Forks {
+
+        /// Starts `lookup` in the element's scope, on its own virtual thread.
+        /// The returned supplier gives its result once all the lookups have joined.
+        <U> Supplier<U> fork(Callable<? extends U> lookup);
+    }
+
+    /// Forks the lookups of `element` and returns how to combine their results.
+    @FunctionalInterface
+    public interface Enricher<T, R> {
+
+        Supplier<? extends R> fork(T element, Forks forks);
+    }
+
+    /// Enriches every element with several concurrent lookups and pushes the enriched
+    /// results in encounter order.
+    ///
+    /// For each element, `enricher` forks its lookups as subtasks of one
+    /// [StructuredTaskScope] and returns a supplier that combines them; the supplier is
+    /// called once they all succeeded. An element costs the slowest of its lookups
+    /// instead of their sum:
+    ///
+    /// ```java
+    /// List<EnrichedAccount> enriched = accounts.stream()
+    ///         .gather(StructuredGatherers.enrichConcurrent(50, (account, forks) -> {
+    ///             Supplier<OrderDetails> order = forks.fork(() -> orderService.findOrder(account.id()));
+    ///             Supplier<Integer> score = forks.fork(() -> creditService.score(account.id()));
+    ///             return () -> new EnrichedAccount(account, order.get(), score.get());
+    ///         }))
+    ///         .toList();
+    /// ```
+    ///
+    /// - each element's scope is owned by its own virtual thread; at most
+    ///   `maxConcurrentScopes` elements are in flight or waiting to be pushed, and the
+    ///   stream waits for the oldest one when they are all taken
+    /// - when a lookup fails, its scope cancels the sibling lookups at once, the other
+    ///   scopes are cancelled too, without waiting for the elements before it, and the
+    ///   lookup's exception is rethrown (unchecked exceptions as they are, checked ones
+    ///   wrapped in a [RuntimeException])
+    /// - when the downstream stops accepting elements, every open scope is cancelled
+    ///
+    /// @throws IllegalArgumentException
+    ///   if `maxConcurrentScopes` is not positive
+    public static <T, R> Gatherer<T, ?, R> enrichConcurrent(int maxConcurrentScopes,
+                                                            Enricher<? super T, ? extends R> enricher) {
+        if (maxConcurrentScopes <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        Objects.requireNonNull(enricher);
+
+        class State {
+            final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            final ArrayDeque<Future<R>> pending = new ArrayDeque<>();
+            // the first failed element; it interrupts every other scope
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                try {
+                    if (pending.size() >= maxConcurrentScopes && !emit(downstream, maxConcurrentScopes - 1)) {
+                        return false;
+                    }
+                    pending.addLast(executor.submit(() -> {
+                        try {
+                            return enrich(element);
+                        } catch (Throwable e) {
+                            if (failure.compareAndSet(null, e)) {
+                                executor.shutdownNow();
+                            }
+                            throw e;
+                        }
+                    }));
+                    return emit(downstream, Integer.MAX_VALUE);
+                } catch (RuntimeException | Error e) {
+                    // read before close(): the scopes it interrupts record their interruption as a failure
+                    Throwable failed = failure.get();
+                    close();
+                    rethrow(failed);
+                    throw e;
+                }
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                try {
+                    if (!downstream.isRejecting()) {
+                        emit(downstream, 0);
+                    }
+                } catch (RuntimeException | Error e) {
+                    rethrow(failure.get());
+                    throw e;
+                } finally {
+                    close();
+                }
+            }
+
+            // runs on the element's own virtual thread, which owns the scope
+            private R enrich(T element) throws InterruptedException {
+                try (var scope = StructuredTaskScope.open()) {
+                    Supplier<? extends R> combined = enricher.fork(element, new Forks() {
+                        @Override
+                        public <U> Supplier<U> fork(Callable<? extends U> lookup) {
+                            return scope.fork(lookup);
+                        }
+                    });
+                    scope.join();
+                    return combined.get();
+                } catch (StructuredTaskScope.FailedException e) {
+                    switch (e.getCause()) {
+                        case RuntimeException runtime -> throw runtime;
+                        case Error error -> throw error;
+                        case Throwable other -> throw new RuntimeException(other);
+                    }
+                }
+            }
+
+            // pushes finished results in order; waits for the oldest while more than `maxPending` are left
+            private boolean emit(Gatherer.Downstream<? super R> downstream, int maxPending) {
+                while (!pending.isEmpty() && (pending.peekFirst().isDone() || pending.size() > maxPending)) {
+                    if (!downstream.push(Futures.await(pending.pollFirst()))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            // an element waiting in line fails with the interruption caused by the first failure; report that one
+            private void rethrow(Throwable failed) {
+                switch (failed) {
+                    case null -> {
+                    }
+                    case RuntimeException runtime -> throw runtime;
+                    case Error error -> throw error;
+                    case Throwable other -> throw new RuntimeException(other);
+                }
+            }
+
+            // interrupting a scope's owner makes its join() throw, and closing the scope cancels its lookups
+            private void close() {
+                pending.forEach(future -> future.cancel(true));
+                pending.clear();
+                executor.shutdownNow();
+            }
+        }
+
+        return Gatherer.ofSequential(
+                State::new,
+                Gatherer.Integrator.<State, T, R>ofGreedy((state, element, downstream) -> state.integrate(element, downstream)),
+                State::finish
+        );
+    }
+}
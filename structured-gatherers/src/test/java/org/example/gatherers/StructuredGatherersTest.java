@@ -0,0 +1,126 @@
+package org.example.gatherers;
+
+import org.example.utils.OrderDetails;
+import org.example.utils.OrderService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StructuredGatherersTest {
+
+    record EnrichedAccount(Long accountId, OrderDetails order, int score) {
+    }
+
+    @Test
+    void enrichedElementCostsTheSlowestLookup() {
+        OrderService orders = new OrderService(Duration.ofMillis(200));
+        OrderService scores = new OrderService(Duration.ofMillis(300));
+        List<Long> ids = LongStream.rangeClosed(1, 20).boxed().toList();
+
+        long start = System.nanoTime();
+        List<EnrichedAccount> enriched = ids.stream()
+                .gather(StructuredGatherers.<Long, EnrichedAccount>enrichConcurrent(10, (id, forks) -> {
+                    Supplier<OrderDetails> order = forks.fork(() -> orders.findOrder(id));
+                    Supplier<Integer> score = forks.fork(() -> scores.findOrder(id).id().intValue());
+                    return () -> new EnrichedAccount(id, order.get(), score.get());
+                }))
+                .toList();
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+
+        // 2 rounds of 10 scopes at max(200, 300) ms, instead of 20 * (200 + 300) ms
+        assertThat(enriched).extracting(EnrichedAccount::accountId).containsExactlyElementsOf(ids);
+        assertThat(enriched).allMatch(account -> account.score() == account.accountId() + 1);
+        assertThat(orders.maxInFlight()).isBetween(2, 10);
+        assertThat(took).isLessThan(Duration.ofMillis(1_500));
+    }
+
+    @Test
+    void failedLookupCancelsItsSiblings() {
+        AtomicInteger interrupted = new AtomicInteger();
+
+        long start = System.nanoTime();
+        assertThatIllegalStateException()
+                .isThrownBy(() -> Stream.of(1, 2, 3)
+                        .gather(StructuredGatherers.<Integer, Integer>enrichConcurrent(3, (n, forks) -> {
+                            Supplier<Integer> slow = forks.fork(() -> {
+                                try {
+                                    Thread.sleep(Duration.ofSeconds(10));
+                                    return n;
+                                } catch (InterruptedException e) {
+                                    interrupted.incrementAndGet();
+                                    throw e;
+                                }
+                            });
+                            Supplier<Integer> failing = forks.fork(() -> {
+                                if (n == 2) {
+                                    throw new IllegalStateException("order service down");
+                                }
+                                return n;
+                            });
+                            return () -> slow.get() + failing.get();
+                        }))
+                        .toList())
+                .withMessage("order service down");
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(took).isLessThan(Duration.ofSeconds(5));
+        sleep(Duration.ofMillis(200));
+        assertThat(interrupted).hasValueGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void downstreamFailureIsNotReplacedByTheScopesItCancels() {
+        long start = System.nanoTime();
+        assertThatIllegalStateException()
+                .isThrownBy(() -> LongStream.rangeClosed(1, 20).boxed()
+                        .gather(StructuredGatherers.<Long, Long>enrichConcurrent(10, (id, forks) -> forks.fork(() -> {
+                            if (id > 1) {
+                                Thread.sleep(Duration.ofSeconds(10));
+                            }
+                            return id;
+                        })))
+                        .forEach(_ -> {
+                            throw new IllegalStateException("downstream failed");
+                        }))
+                .withMessage("downstream failed");
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(took).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void stopsWhenDownstreamRejects() {
+        OrderService orders = new OrderService(Duration.ofMillis(20));
+
+        List<OrderDetails> enriched = LongStream.iterate(1, id -> id + 1).boxed()
+                .gather(StructuredGatherers.<Long, OrderDetails>enrichConcurrent(4, (id, forks) ->
+                        forks.fork(() -> orders.findOrder(id))))
+                .limit(10)
+                .toList();
+
+        assertThat(enriched).extracting(OrderDetails::accountId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(orders.calls()).isLessThan(20);
+    }
+
+    @Test
+    void rejectsInvalidConcurrency() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> StructuredGatherers.<Long, Long>enrichConcurrent(0, (id, _) -> () -> id));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}